@@ -14,6 +14,11 @@ public class AuthResponse {
     private UtilisateurResponse utilisateur;
     private Integer tentativesRestantes;
 
+    // Jeton d'accès (Authorization: Bearer), jeton de rafraîchissement (POST /api/auth/refresh), durée en secondes
+    private String token;
+    private String refreshToken;
+    private Long expiresIn;
+
     public AuthResponse(boolean success, String message) {
         this.success = success;
         this.message = message;
@@ -0,0 +1,27 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterResponse {
+
+    // Tuile (schéma XYZ / OpenStreetMap)
+    private int zoom;
+    private int x;
+    private int y;
+
+    private long nombre;
+
+    // Barycentre des signalements de la tuile
+    private double latitude;
+    private double longitude;
+
+    // Nombre de signalements par statut (NOUVEAU, EN_COURS, TERMINE)
+    private Map<String, Long> statuts;
+}
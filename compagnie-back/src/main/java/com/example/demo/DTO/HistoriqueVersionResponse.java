@@ -0,0 +1,28 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoriqueVersionResponse {
+
+    private String type; // STATUT | DETAIL
+    private Long idVersion;
+    private LocalDateTime dateDebut;
+    private LocalDateTime dateFin; // null = version ouverte (actuelle)
+
+    // Version de statut
+    private String statut;
+
+    // Version de détail
+    private BigDecimal surfaceM2;
+    private BigDecimal budget;
+    private Long idEntreprise;
+    private String entreprise;
+}
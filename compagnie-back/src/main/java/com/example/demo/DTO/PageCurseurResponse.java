@@ -0,0 +1,20 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageCurseurResponse<T> {
+
+    private List<T> elements;
+
+    // Jeton opaque à renvoyer pour obtenir la page suivante (null si dernière page)
+    private String curseurSuivant;
+
+    private boolean suite;
+}
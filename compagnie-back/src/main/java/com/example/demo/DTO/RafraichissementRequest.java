@@ -0,0 +1,15 @@
+package com.example.demo.DTO;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RafraichissementRequest {
+
+    @NotBlank(message = "Le jeton de rafraîchissement est obligatoire")
+    private String refreshToken;
+}
@@ -1,6 +1,7 @@
 package com.example.demo.DTO;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,4 +22,7 @@ public class SignalementRequest {
     private Double longitude;
     
     private String source; // WEB | MOBILE | FIREBASE
+
+    @Size(max = 2000, message = "La description ne doit pas dépasser 2000 caractères")
+    private String description;
 }
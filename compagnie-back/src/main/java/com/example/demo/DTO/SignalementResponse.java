@@ -19,6 +19,8 @@ public class SignalementResponse {
     private Double longitude;
     private String source;
     private LocalDateTime dateCreation;
+    private String description;
+    private UUID idDoublonDe;
     
     // Statut actuel
     private String statut;
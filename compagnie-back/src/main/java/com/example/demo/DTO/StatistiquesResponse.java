@@ -0,0 +1,36 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatistiquesResponse {
+
+    private long nbTotal;
+    private BigDecimal totalSurface;
+    private BigDecimal totalBudget;
+
+    // NOUVEAU = 0%, EN_COURS = 50%, TERMINE = 100%
+    private double avancementPourcentage;
+
+    private List<StatutStatistiques> parStatut;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatutStatistiques {
+        private String statut;
+        private long nb;
+        private BigDecimal surface;
+        private BigDecimal budget;
+
+        // Part des signalements dans ce statut
+        private double pourcentage;
+    }
+}
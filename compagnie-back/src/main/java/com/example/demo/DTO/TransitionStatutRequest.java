@@ -0,0 +1,22 @@
+package com.example.demo.DTO;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransitionStatutRequest {
+
+    @NotEmpty(message = "La liste des signalements est obligatoire")
+    private List<UUID> idsSignalement;
+
+    @NotBlank(message = "Le statut est obligatoire")
+    private String statut; // NOUVEAU | EN_COURS | TERMINE
+}
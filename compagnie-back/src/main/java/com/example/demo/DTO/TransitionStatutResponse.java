@@ -0,0 +1,24 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransitionStatutResponse {
+
+    private String statut;
+    private LocalDateTime dateDebut;
+
+    // Signalements effectivement passés au nouveau statut
+    private List<UUID> modifies;
+
+    // Nombre d'ids inconnus ou déjà dans ce statut
+    private int ignores;
+}
@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import com.example.demo.service.JetonService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authentification par jeton d'accès "Authorization: Bearer ..." (vérification HMAC, sans accès base)
+ * Jeton valide : principal = id utilisateur, autorités ROLE_<code> et ETAT_<code>.
+ * Jeton invalide, expiré ou révoqué : requête traitée en anonyme (routes publiques inchangées) ;
+ * le point d'entrée de SecurityConfig répond 401 invalid_token si la route exige une authentification.
+ * Sans jeton : requête anonyme, inchangée.
+ */
+public class JetonAuthentificationFilter extends OncePerRequestFilter {
+
+    private static final String PREFIXE = "Bearer ";
+
+    /** Attribut de requête posé quand le jeton présenté a été refusé */
+    public static final String ATTRIBUT_JETON_INVALIDE = JetonAuthentificationFilter.class.getName() + ".invalide";
+
+    private final JetonService jetonService;
+
+    public JetonAuthentificationFilter(JetonService jetonService) {
+        this.jetonService = jetonService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String autorisation = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (autorisation == null || !autorisation.regionMatches(true, 0, PREFIXE, 0, PREFIXE.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<JetonService.JetonVerifie> jeton =
+                jetonService.verifier(autorisation.substring(PREFIXE.length()).trim(), JetonService.ACCES);
+        if (jeton.isEmpty()) {
+            request.setAttribute(ATTRIBUT_JETON_INVALIDE, Boolean.TRUE);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        JetonService.JetonVerifie verifie = jeton.get();
+        List<SimpleGrantedAuthority> autorites = new ArrayList<>();
+        verifie.roles().forEach(role -> autorites.add(new SimpleGrantedAuthority("ROLE_" + role)));
+        if (verifie.etat() != null) {
+            autorites.add(new SimpleGrantedAuthority("ETAT_" + verifie.etat()));
+        }
+        UsernamePasswordAuthenticationToken authentification =
+                new UsernamePasswordAuthenticationToken(verifie.idUtilisateur(), null, autorites);
+        authentification.setDetails(verifie);
+        SecurityContextHolder.getContext().setAuthentication(authentification);
+        chain.doFilter(request, response);
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.demo.config;
 
+import com.example.demo.service.JetonService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -16,18 +22,33 @@ import java.util.Arrays;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Autowired
+    private JetonService jetonService;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Jeton d'accès signé : identité, rôles et état sans lecture en base
+            .addFilterBefore(new JetonAuthentificationFilter(jetonService), UsernamePasswordAuthenticationFilter.class)
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                // Reconstruction de la projection : réservée aux administrateurs (jeton d'accès)
+                .requestMatchers(HttpMethod.POST, "/api/admin/signalements/projection/reconstruire").hasRole("ADMIN")
                 .anyRequest().permitAll()  // Pour le développement - à sécuriser en production
-            );
+            )
+            // 401 seulement sur les routes qui exigent une authentification ;
+            // invalid_token si le jeton présenté a été refusé (le client se rafraîchit)
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint((request, response, exception) -> {
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE,
+                        request.getAttribute(JetonAuthentificationFilter.ATTRIBUT_JETON_INVALIDE) != null
+                                ? "Bearer error=\"invalid_token\"" : "Bearer");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            }));
 
         return http.build();
     }
@@ -38,6 +59,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag", "Idempotent-Replayed", "WWW-Authenticate"));
         configuration.setAllowCredentials(false);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,114 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.EntrepriseCache;
+import com.example.demo.service.ReferentielRegistry;
+import com.example.demo.service.SignalementClusterService;
+import com.example.demo.service.SignalementService;
+import com.example.demo.service.SignalementStatistiquesService;
+import com.example.demo.service.SignalementVersionService;
+import com.example.demo.service.SignalementSpatialIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdministrationController {
+
+    @Autowired
+    private SignalementService signalementService;
+
+    @Autowired
+    private SignalementSpatialIndex signalementSpatialIndex;
+
+    @Autowired
+    private SignalementClusterService signalementClusterService;
+
+    @Autowired
+    private ReferentielRegistry referentielRegistry;
+
+    @Autowired
+    private EntrepriseCache entrepriseCache;
+
+    @Autowired
+    private SignalementStatistiquesService signalementStatistiquesService;
+
+    @Autowired
+    private SignalementVersionService signalementVersionService;
+
+    /**
+     * Reconstruire la projection signalement_courant depuis l'historique
+     * POST /api/admin/signalements/projection/reconstruire (rôle ADMIN, voir SecurityConfig)
+     */
+    @PostMapping("/signalements/projection/reconstruire")
+    public ResponseEntity<Map<String, Object>> reconstruireProjection() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            int lignes = signalementService.reconstruireProjection();
+
+            // Les caches en mémoire dérivent de la projection
+            signalementSpatialIndex.reconstruire();
+            signalementClusterService.invaliderTout();
+            signalementStatistiquesService.recalculer();
+            signalementVersionService.invaliderTout();
+
+            result.put("status", "success");
+            result.put("lignes", lignes);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            result.put("status", "error");
+            result.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+
+    /**
+     * Recalculer entièrement les statistiques du tableau de bord (réconciliation)
+     * POST /api/admin/signalements/stats/recalculer
+     */
+    @PostMapping("/signalements/stats/recalculer")
+    public ResponseEntity<Map<String, Object>> recalculerStatistiques() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            signalementStatistiquesService.recalculer();
+
+            result.put("status", "success");
+            result.put("statistiques", signalementStatistiquesService.getStatistiques());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            result.put("status", "error");
+            result.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+
+    /**
+     * Recharger les référentiels (statuts, états de compte, rôles) et vider le cache
+     * des entreprises après modification en base
+     * POST /api/admin/referentiels/recharger
+     */
+    @PostMapping("/referentiels/recharger")
+    public ResponseEntity<Map<String, Object>> rechargerReferentiels() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            referentielRegistry.recharger();
+            entrepriseCache.invaliderTout();
+            signalementVersionService.invaliderTout();
+
+            result.put("status", "success");
+            result.put("statuts", referentielRegistry.statuts().taille());
+            result.put("etats", referentielRegistry.etats().taille());
+            result.put("roles", referentielRegistry.roles().taille());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            result.put("status", "error");
+            result.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+    }
+}
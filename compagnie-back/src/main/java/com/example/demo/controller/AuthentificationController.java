@@ -3,6 +3,7 @@ package com.example.demo.controller;
 import com.example.demo.DTO.AuthResponse;
 import com.example.demo.DTO.InscriptionRequest;
 import com.example.demo.DTO.LoginRequest;
+import com.example.demo.DTO.RafraichissementRequest;
 import com.example.demo.DTO.UtilisateurResponse;
 // import com.example.demo.DTO.AuthResponse;
 // import com.example.demo.DTO.InscriptionRequest;
@@ -11,12 +12,14 @@ import com.example.demo.DTO.UtilisateurResponse;
 import com.example.demo.service.AuthentificationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -28,7 +31,7 @@ public class AuthentificationController {
 
     /**
      * Endpoint d'inscription
-     * POST /api/auth/register
+     * POST /api/auth/register (429 si le pool BCrypt est saturé)
      */
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> inscrire(@Valid @RequestBody InscriptionRequest request) {
@@ -40,6 +43,8 @@ public class AuthentificationController {
             } else {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
+        } catch (RejectedExecutionException e) {
+            return sature();
         } catch (Exception e) {
             AuthResponse errorResponse = new AuthResponse(false, "Erreur lors de l'inscription: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
@@ -48,7 +53,7 @@ public class AuthentificationController {
 
         /**
      * Endpoint de connexion
-     * POST /api/auth/login
+     * POST /api/auth/login (429 si le pool BCrypt est saturé)
      */
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> connecter(@Valid @RequestBody LoginRequest request) {
@@ -60,12 +65,34 @@ public class AuthentificationController {
             } else {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
+        } catch (RejectedExecutionException e) {
+            return sature();
         } catch (Exception e) {
             AuthResponse errorResponse = new AuthResponse(false, "Erreur lors de la connexion: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
 
+    /**
+     * Endpoint pour renouveler les jetons (rôles et état relus en base)
+     * POST /api/auth/refresh
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> rafraichir(@Valid @RequestBody RafraichissementRequest request) {
+        try {
+            AuthResponse response = authentificationService.rafraichir(request.getRefreshToken());
+
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+        } catch (Exception e) {
+            AuthResponse errorResponse = new AuthResponse(false, "Erreur lors du renouvellement: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
     /**
      * Endpoint pour débloquer un compte (admin)
      * POST /api/auth/unblock/{userId}
@@ -96,6 +123,12 @@ public class AuthentificationController {
         }
     }
 
-
-
+    /**
+     * Trop de hachages en cours : refus immédiat, le client réessaie
+     */
+    private ResponseEntity<AuthResponse> sature() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new AuthResponse(false, "Service de connexion saturé, réessayez dans un instant"));
+    }
 }
@@ -1,17 +1,45 @@
 package com.example.demo.controller;
 
+import com.example.demo.DTO.ClusterResponse;
+import com.example.demo.DTO.HistoriqueVersionResponse;
+import com.example.demo.DTO.PageCurseurResponse;
 import com.example.demo.DTO.SignalementRequest;
 import com.example.demo.DTO.SignalementResponse;
+import com.example.demo.DTO.StatistiquesResponse;
+import com.example.demo.DTO.TransitionStatutRequest;
+import com.example.demo.DTO.TransitionStatutResponse;
 import com.example.demo.DTO.UpdateSignalementRequest;
+import com.example.demo.service.IdempotenceService;
+import com.example.demo.service.SignalementClusterService;
+import com.example.demo.service.SignalementIngestionService;
 import com.example.demo.service.SignalementService;
+import com.example.demo.service.SignalementStatistiquesService;
+import com.example.demo.service.SignalementVersionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/signalements")
@@ -21,42 +49,289 @@ public class SignalementController {
     @Autowired
     private SignalementService signalementService;
 
+    @Autowired
+    private SignalementClusterService signalementClusterService;
+
+    @Autowired
+    private SignalementStatistiquesService signalementStatistiquesService;
+
+    @Autowired
+    private SignalementVersionService signalementVersionService;
+
+    @Autowired
+    private IdempotenceService idempotenceService;
+
+    @Autowired
+    private SignalementIngestionService signalementIngestionService;
+
+    // Délai async de l'export seul (les autres requêtes gardent spring.mvc.async.request-timeout)
+    @Value("${signalement.export.timeout-secondes:600}")
+    private long exportTimeoutSecondes;
+
     /**
      * Créer un nouveau signalement
-     * POST /api/signalements
+     * POST /api/signalements (en-tête Idempotency-Key : un renvoi de la même requête rejoue la réponse
+     * sans créer de doublon ; 400 si la clé a servi pour une autre requête, 409 si l'original ne se termine pas)
+     * Ingestion différée active : 202 avec l'identifiant attribué, écriture par lot ; 429 si la file est pleine
      */
     @PostMapping
-    public ResponseEntity<SignalementResponse> creerSignalement(@Valid @RequestBody SignalementRequest request) {
+    public ResponseEntity<SignalementResponse> creerSignalement(
+            @Valid @RequestBody SignalementRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        boolean differe = signalementIngestionService.estActive();
+        IdempotenceService.Resultat<SignalementResponse> resultat;
         try {
-            SignalementResponse response = signalementService.creerSignalement(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            resultat = idempotenceService.executer(idempotencyKey, request, () -> differe
+                    ? signalementIngestionService.soumettre(request)
+                    : signalementService.creerSignalement(request));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             throw new RuntimeException("Erreur lors de la création du signalement: " + e.getMessage());
         }
+        return ResponseEntity.status(differe ? HttpStatus.ACCEPTED : HttpStatus.CREATED)
+                .header("Idempotent-Replayed", Boolean.toString(resultat.rejoue()))
+                .body(resultat.valeur());
+    }
+
+    /**
+     * Créer plusieurs signalements en une seule requête (insertion en batch)
+     * POST /api/signalements/batch
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<SignalementResponse>> creerSignalements(@RequestBody List<SignalementRequest> requests) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(signalementService.creerSignalements(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Changer le statut de plusieurs signalements en une seule opération
+     * PUT /api/signalements/statut  {"idsSignalement": [...], "statut": "TERMINE"}
+     */
+    @PutMapping("/statut")
+    public ResponseEntity<TransitionStatutResponse> changerStatutEnMasse(@Valid @RequestBody TransitionStatutRequest request) {
+        try {
+            return ResponseEntity.ok(signalementService.changerStatutEnMasse(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Mettre à jour le statut et / ou les détails d'un signalement
+     * PUT /api/signalements (409 si les conflits d'écriture concurrente persistent après les reprises)
+     */
+    @PutMapping
+    public ResponseEntity<SignalementResponse> updateSignalement(@Valid @RequestBody UpdateSignalementRequest request) {
+        try {
+            return ResponseEntity.ok(signalementService.updateSignalement(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    /**
+     * Supprimer un signalement (passage au statut TERMINE)
+     * DELETE /api/signalements/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSignalement(@PathVariable("id") UUID id) {
+        try {
+            signalementService.deleteSignalement(id);
+            return ResponseEntity.noContent().build();
+        } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
     }
 
     /**
      * Récupérer tous les signalements
-     * GET /api/signalements
+     * GET /api/signalements (If-None-Match → 304 sans requête en base)
      */
     @GetMapping
-    public ResponseEntity<List<SignalementResponse>> getAllSignalements() {
-        List<SignalementResponse> signalements = signalementService.getAllSignalements();
-        return ResponseEntity.ok(signalements);
+    public ResponseEntity<List<SignalementResponse>> getAllSignalements(WebRequest webRequest) {
+        return reponseAvecEtag(webRequest, signalementVersionService.etagGlobal(),
+                signalementService::getAllSignalements);
     }
    
+    /**
+     * Statistiques du tableau de bord (total, par statut, surface, budget, avancement)
+     * GET /api/signalements/stats (If-None-Match → 304)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<StatistiquesResponse> getStatistiques(WebRequest webRequest) {
+        return reponseAvecEtag(webRequest, signalementVersionService.etagGlobal(),
+                signalementStatistiquesService::getStatistiques);
+    }
+
+    /**
+     * Récupérer les signalements page par page (pagination par curseur, sans OFFSET)
+     * GET /api/signalements/page?taille=100&curseur=...&statut=NOUVEAU&source=WEB&idUtilisateur=...
+     * (If-None-Match → 304 sans requête en base : l'ETag global change à chaque écriture, donc pour toute page)
+     */
+    @GetMapping("/page")
+    public ResponseEntity<PageCurseurResponse<SignalementResponse>> getSignalementsPage(
+            @RequestParam(value = "curseur", required = false) String curseur,
+            @RequestParam(value = "taille", required = false) Integer taille,
+            @RequestParam(value = "statut", required = false) String statut,
+            @RequestParam(value = "source", required = false) String source,
+            @RequestParam(value = "idUtilisateur", required = false) UUID idUtilisateur,
+            WebRequest webRequest) {
+        try {
+            return reponseAvecEtag(webRequest, signalementVersionService.etagGlobal(),
+                    () -> signalementService.getSignalementsPage(curseur, taille, statut, source, idUtilisateur));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Récupérer les signalements visibles dans une zone (index spatial)
+     * GET /api/signalements/bbox?minLat=..&minLng=..&maxLat=..&maxLng=..
+     */
+    @GetMapping("/bbox")
+    public ResponseEntity<List<SignalementResponse>> getSignalementsDansZone(
+            @RequestParam("minLat") double minLat,
+            @RequestParam("minLng") double minLng,
+            @RequestParam("maxLat") double maxLat,
+            @RequestParam("maxLng") double maxLng) {
+        try {
+            return ResponseEntity.ok(signalementService.getSignalementsDansZone(minLat, minLng, maxLat, maxLng));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Signalements ouverts à proximité d'une position (doublons potentiels, du plus proche au plus éloigné)
+     * GET /api/signalements/doublons?latitude=..&longitude=..
+     */
+    @GetMapping("/doublons")
+    public ResponseEntity<List<SignalementResponse>> getDoublonsPotentiels(
+            @RequestParam("latitude") double latitude,
+            @RequestParam("longitude") double longitude) {
+        try {
+            return ResponseEntity.ok(signalementService.getDoublonsPotentiels(latitude, longitude));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Rechercher dans les descriptions (« nid de poule », « chaussée » : racines françaises, accents ignorés)
+     * GET /api/signalements/search?q=..&statut=..&minLat=..&minLng=..&maxLat=..&maxLng=..&taille=..
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<SignalementResponse>> rechercherSignalements(
+            @RequestParam("q") String q,
+            @RequestParam(value = "statut", required = false) String statut,
+            @RequestParam(value = "minLat", required = false) Double minLat,
+            @RequestParam(value = "minLng", required = false) Double minLng,
+            @RequestParam(value = "maxLat", required = false) Double maxLat,
+            @RequestParam(value = "maxLng", required = false) Double maxLng,
+            @RequestParam(value = "taille", required = false) Integer taille) {
+        try {
+            return ResponseEntity.ok(signalementService.rechercherSignalements(q, statut, minLat, minLng, maxLat, maxLng, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Récupérer les signalements pré-agrégés par tuile pour un niveau de zoom
+     * GET /api/signalements/clusters?zoom=12&minLat=..&minLng=..&maxLat=..&maxLng=..
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<List<ClusterResponse>> getClusters(
+            @RequestParam("zoom") int zoom,
+            @RequestParam("minLat") double minLat,
+            @RequestParam("minLng") double minLng,
+            @RequestParam("maxLat") double maxLat,
+            @RequestParam("maxLng") double maxLng) {
+        try {
+            return ResponseEntity.ok(signalementClusterService.getClusters(zoom, minLat, minLng, maxLat, maxLng));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Exporter tous les signalements (état actuel) en NDJSON, écrit en flux
+     * GET /api/signalements/export
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exporterSignalements(HttpServletRequest request) {
+        // Appliqué juste avant le démarrage du traitement async du flux, pour cette requête uniquement
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor("export-timeout",
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        if (webRequest instanceof AsyncWebRequest asyncWebRequest) {
+                            asyncWebRequest.setTimeout(TimeUnit.SECONDS.toMillis(exportTimeoutSecondes));
+                        }
+                    }
+                });
+        StreamingResponseBody corps = sortie -> signalementService.exporterSignalements(sortie);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"signalements.ndjson\"")
+                .body(corps);
+    }
+
+    /**
+     * Historique des statuts et détails d'un signalement (plus récent d'abord, pagination par curseur)
+     * GET /api/signalements/{id}/historique?taille=100&curseur=...
+     */
+    @GetMapping("/{id}/historique")
+    public ResponseEntity<PageCurseurResponse<HistoriqueVersionResponse>> getHistorique(
+            @PathVariable("id") UUID id,
+            @RequestParam(value = "curseur", required = false) String curseur,
+            @RequestParam(value = "taille", required = false) Integer taille) {
+        try {
+            return ResponseEntity.ok(signalementService.getHistorique(id, curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     /**
      * Récupérer un signalement par ID
-     * GET /api/signalements/{id}
+     * GET /api/signalements/{id} (If-None-Match → 304 sans requête en base)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<SignalementResponse> getSignalementById(@PathVariable("id") UUID id) {
+    public ResponseEntity<SignalementResponse> getSignalementById(@PathVariable("id") UUID id, WebRequest webRequest) {
         try {
-            SignalementResponse signalement = signalementService.getSignalementById(id);
-            return ResponseEntity.ok(signalement);
+            return reponseAvecEtag(webRequest, signalementVersionService.etagSignalement(id),
+                    () -> signalementService.getSignalementById(id));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
 
+    /**
+     * Réponse conditionnelle : null si If-None-Match correspond (statut 304 et en-tête ETag
+     * déjà positionnés par checkNotModified), sinon 200 avec l'ETag et le corps calculé
+     */
+    private <T> ResponseEntity<T> reponseAvecEtag(WebRequest webRequest, String etag, Supplier<T> corps) {
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(corps.get());
+    }
+
 }
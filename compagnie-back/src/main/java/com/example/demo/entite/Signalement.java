@@ -4,7 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.GenericGenerator;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -14,14 +14,10 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Signalement {
+public class Signalement implements Persistable<UUID> {
 
+    // Attribué par l'application (à l'insertion, ou avant pour la file d'ingestion)
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(
-        name = "UUID",
-        strategy = "org.hibernate.id.UUIDGenerator"
-    )
     @Column(name = "id_signalement", updatable = false, nullable = false)
     private UUID idSignalement;
 
@@ -37,11 +33,46 @@ public class Signalement {
     @Column(name = "source", length = 20)
     private String source; // WEB | MOBILE | FIREBASE
 
+    // Texte libre saisi sur le mobile ; indexé en plein texte par PostgreSQL (description_recherche, V7)
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    // Signalement ouvert le plus proche à la création (doublon probable, V8), sinon null
+    @Column(name = "id_doublon_de")
+    private UUID idDoublonDe;
+
+    // Document Firestore d'origine (import depuis Firestore, V11), sinon null
+    @Column(name = "id_firestore", length = 128)
+    private String idFirestore;
+
     @Column(name = "date_creation", nullable = false)
     private LocalDateTime dateCreation;
 
+    // Identifiant attribué par l'application : insertion directe (persist) sans SELECT préalable
+    @Transient
+    private boolean nouveau = true;
+
+    @Override
+    public UUID getId() {
+        return idSignalement;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nouveau;
+    }
+
+    @PostLoad
+    public void marquerExistant() {
+        nouveau = false;
+    }
+
     @PrePersist
     public void prePersist() {
+        if (idSignalement == null) {
+            idSignalement = UUID.randomUUID();
+        }
+        marquerExistant();
         if (dateCreation == null) {
             dateCreation = LocalDateTime.now();
         }
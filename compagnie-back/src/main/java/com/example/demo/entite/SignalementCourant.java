@@ -0,0 +1,88 @@
+package com.example.demo.entite;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection dénormalisée de l'état actuel d'un signalement (une ligne par signalement).
+ * Maintenue dans la même transaction que l'historique signalement_statut / signalement_detail.
+ */
+@Entity
+@Table(name = "signalement_courant")
+@Data
+@NoArgsConstructor
+public class SignalementCourant implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "id_signalement", updatable = false, nullable = false)
+    private UUID idSignalement;
+
+    @Column(name = "id_statut")
+    private Long idStatut;
+
+    @Column(name = "code_statut", length = 20)
+    private String codeStatut;
+
+    @Column(name = "date_debut_statut")
+    private LocalDateTime dateDebutStatut;
+
+    @Column(name = "surface_m2", precision = 10, scale = 2)
+    private BigDecimal surfaceM2;
+
+    @Column(name = "budget", precision = 14, scale = 2)
+    private BigDecimal budget;
+
+    @Column(name = "id_entreprise")
+    private Long idEntreprise;
+
+    @Column(name = "date_modification", nullable = false)
+    private LocalDateTime dateModification;
+
+    // Verrou optimiste : deux écrivains concurrents ne peuvent pas valider la même version
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Identifiant attribué par l'application : insertion directe (persist) sans SELECT préalable
+    @Transient
+    private boolean nouveau = true;
+
+    public SignalementCourant(UUID idSignalement) {
+        this.idSignalement = idSignalement;
+    }
+
+    @Override
+    public UUID getId() {
+        return idSignalement;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nouveau;
+    }
+
+    @PostLoad
+    public void marquerExistant() {
+        nouveau = false;
+    }
+
+    @PrePersist
+    public void preInsertion() {
+        // Dès le persist, la ligne compte comme existante pour la suite de la transaction
+        marquerExistant();
+        preEnregistrement();
+    }
+
+    @PreUpdate
+    public void preEnregistrement() {
+        if (dateModification == null) {
+            dateModification = LocalDateTime.now();
+        }
+    }
+}
@@ -16,8 +16,11 @@ import java.util.UUID;
 @AllArgsConstructor
 public class SignalementDetail {
 
+    // Séquence à incrément 50 (optimiseur pooled) : les insertions peuvent être regroupées en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "signalement_detail_seq")
+    @SequenceGenerator(name = "signalement_detail_seq",
+            sequenceName = "signalement_detail_id_detail_seq", allocationSize = 50)
     @Column(name = "id_detail")
     private Long idDetail;
 
@@ -15,8 +15,11 @@ import java.util.UUID;
 @AllArgsConstructor
 public class SignalementStatut {
 
+    // Séquence à incrément 50 (optimiseur pooled) : les insertions peuvent être regroupées en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "signalement_statut_seq")
+    @SequenceGenerator(name = "signalement_statut_seq",
+            sequenceName = "signalement_statut_id_signalement_statut_seq", allocationSize = 50)
     @Column(name = "id_signalement_statut")
     private Long idSignalementStatut;
 
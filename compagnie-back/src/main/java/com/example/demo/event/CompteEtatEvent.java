@@ -0,0 +1,22 @@
+package com.example.demo.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.UUID;
+
+/**
+ * Événement déclenché lors du blocage ou du déblocage d'un compte
+ */
+@Getter
+public class CompteEtatEvent extends ApplicationEvent {
+
+    private final UUID idUtilisateur;
+    private final String codeEtat;
+
+    public CompteEtatEvent(Object source, UUID idUtilisateur, String codeEtat) {
+        super(source);
+        this.idUtilisateur = idUtilisateur;
+        this.codeEtat = codeEtat;
+    }
+}
@@ -22,6 +22,8 @@ public class SignalementEvent extends ApplicationEvent {
     public enum EventType {
         CREATED,
         UPDATED,
-        DELETED
+        DELETED,
+        // Créé par l'import Firestore → PostgreSQL (déjà présent dans Firestore, pas de resynchronisation)
+        IMPORTED
     }
 }
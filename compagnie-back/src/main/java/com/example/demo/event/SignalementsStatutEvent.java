@@ -0,0 +1,27 @@
+package com.example.demo.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Événement agrégé déclenché par un changement de statut en masse
+ * (un seul événement pour tous les signalements concernés)
+ */
+@Getter
+public class SignalementsStatutEvent extends ApplicationEvent {
+
+    private final List<UUID> idsSignalement;
+    private final String codeStatut;
+    private final LocalDateTime dateDebut;
+
+    public SignalementsStatutEvent(Object source, List<UUID> idsSignalement, String codeStatut, LocalDateTime dateDebut) {
+        super(source);
+        this.idsSignalement = List.copyOf(idsSignalement);
+        this.codeStatut = codeStatut;
+        this.dateDebut = dateDebut;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.demo.firebase;
 
 import com.example.demo.entite.*;
 import com.example.demo.repository.*;
+import com.example.demo.service.EntrepriseCache;
+import com.example.demo.service.ReferentielRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -26,16 +28,10 @@ import java.util.UUID;
 public class FirestoreMapper {
 
     @Autowired
-    private SignalementStatutRepository signalementStatutRepository;
+    private SignalementCourantRepository signalementCourantRepository;
 
     @Autowired
-    private StatutSignalementRepository statutSignalementRepository;
-
-    @Autowired
-    private SignalementDetailRepository signalementDetailRepository;
-
-    @Autowired
-    private EntrepriseRepository entrepriseRepository;
+    private EntrepriseCache entrepriseCache;
 
     @Autowired
     private UtilisateurInfoRepository utilisateurInfoRepository;
@@ -44,14 +40,11 @@ public class FirestoreMapper {
     private UtilisateurRoleRepository utilisateurRoleRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private ReferentielRegistry referentielRegistry;
 
     @Autowired
     private UtilisateurEtatRepository utilisateurEtatRepository;
 
-    @Autowired
-    private EtatCompteRepository etatCompteRepository;
-
     /**
      * Convertir Signalement en document Firestore
      */
@@ -59,41 +52,42 @@ public class FirestoreMapper {
         Map<String, Object> doc = new HashMap<>();
         
         doc.put("id_signalement", signalement.getIdSignalement().toString());
-        doc.put("id_utilisateur", signalement.getIdUtilisateur() != null ? 
-                signalement.getIdUtilisateur().toString() : null);
+        // Sans auteur côté backend : id_utilisateur laissé tel quel (auteur Firebase écrit par le mobile)
+        if (signalement.getIdUtilisateur() != null) {
+            doc.put("id_utilisateur", signalement.getIdUtilisateur().toString());
+        }
         doc.put("latitude", signalement.getLatitude());
         doc.put("longitude", signalement.getLongitude());
         doc.put("source", signalement.getSource());
+        if (signalement.getDescription() != null) {
+            doc.put("description", signalement.getDescription());
+        }
+        if (signalement.getIdDoublonDe() != null) {
+            doc.put("id_doublon_de", signalement.getIdDoublonDe().toString());
+        }
         doc.put("date_creation", toFirestoreTimestamp(signalement.getDateCreation()));
 
-        // Ajouter le statut actuel
-        SignalementStatut statutActuel = signalementStatutRepository
-                .findByIdSignalementAndDateFinIsNull(signalement.getIdSignalement())
+        // Ajouter l'état actuel (statut, surface, budget, entreprise) depuis la projection
+        SignalementCourant courant = signalementCourantRepository
+                .findById(signalement.getIdSignalement())
                 .orElse(null);
 
-        if (statutActuel != null) {
-            StatutSignalement statut = statutSignalementRepository
-                    .findById(statutActuel.getIdStatut()).orElse(null);
-            if (statut != null) {
-                doc.put("statut", statut.getCode());
-                doc.put("statut_date_debut", toFirestoreTimestamp(statutActuel.getDateDebut()));
-            }
+        if (courant != null && courant.getCodeStatut() != null) {
+            doc.put("statut", courant.getCodeStatut());
+            doc.put("statut_date_debut", toFirestoreTimestamp(courant.getDateDebutStatut()));
         } else {
             doc.put("statut", "NOUVEAU");
         }
 
-        // Ajouter les détails actuels (surface, budget, entreprise)
-        SignalementDetail detailActuel = signalementDetailRepository
-                .findByIdSignalementAndDateFinIsNull(signalement.getIdSignalement())
-                .orElse(null);
-
-        if (detailActuel != null) {
-            doc.put("surface_m2", detailActuel.getSurfaceM2());
-            doc.put("budget", detailActuel.getBudget());
+        boolean detailsPresents = courant != null && (courant.getSurfaceM2() != null
+                || courant.getBudget() != null || courant.getIdEntreprise() != null);
+        if (detailsPresents) {
+            doc.put("surface_m2", courant.getSurfaceM2());
+            doc.put("budget", courant.getBudget());
             
-            if (detailActuel.getIdEntreprise() != null) {
-                Entreprise entreprise = entrepriseRepository
-                        .findById(detailActuel.getIdEntreprise()).orElse(null);
+            if (courant.getIdEntreprise() != null) {
+                Entreprise entreprise = entrepriseCache
+                        .trouver(courant.getIdEntreprise()).orElse(null);
                 if (entreprise != null) {
                     doc.put("id_entreprise", entreprise.getIdEntreprise());
                     doc.put("entreprise_nom", entreprise.getNom());
@@ -131,9 +125,9 @@ public class FirestoreMapper {
         
         if (!rolesActuels.isEmpty()) {
             UtilisateurRole roleActuel = rolesActuels.get(0);
-            Role role = roleRepository.findById(roleActuel.getIdRole()).orElse(null);
-            if (role != null) {
-                doc.put("role", role.getCode());
+            String codeRole = referentielRegistry.roles().getCode(roleActuel.getIdRole());
+            if (codeRole != null) {
+                doc.put("role", codeRole);
             }
         }
 
@@ -143,9 +137,9 @@ public class FirestoreMapper {
                 .orElse(null);
 
         if (etatActuel != null) {
-            EtatCompte etat = etatCompteRepository.findById(etatActuel.getIdEtat()).orElse(null);
-            if (etat != null) {
-                doc.put("etat_compte", etat.getCode());
+            String codeEtat = referentielRegistry.etats().getCode(etatActuel.getIdEtat());
+            if (codeEtat != null) {
+                doc.put("etat_compte", codeEtat);
             }
         }
 
@@ -167,6 +161,16 @@ public class FirestoreMapper {
     /**
      * Convertir LocalDateTime en Timestamp Firestore
      */
+    /**
+     * Champs Firestore d'un changement de statut (mise à jour partielle du document signalement)
+     */
+    public Map<String, Object> statutToFirestoreFields(String codeStatut, LocalDateTime dateDebut) {
+        Map<String, Object> champs = new HashMap<>();
+        champs.put("statut", codeStatut);
+        champs.put("statut_date_debut", toFirestoreTimestamp(dateDebut));
+        return champs;
+    }
+
     private Date toFirestoreTimestamp(LocalDateTime localDateTime) {
         if (localDateTime == null) {
             return null;
@@ -1,12 +1,18 @@
 package com.example.demo.firebase;
 
 import com.example.demo.entite.*;
+import com.example.demo.event.SignalementEvent;
 import com.example.demo.repository.*;
+import com.example.demo.service.ReferentielRegistry;
+import com.example.demo.service.SignalementDoublonService;
+import com.example.demo.service.SignalementService;
+import com.example.demo.service.SignalementStatistiquesService;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,28 +42,31 @@ public class FirestoreSyncFromFirebaseService {
     private SignalementStatutRepository signalementStatutRepository;
 
     @Autowired
-    private StatutSignalementRepository statutSignalementRepository;
+    private ReferentielRegistry referentielRegistry;
 
     @Autowired
     private SignalementDetailRepository signalementDetailRepository;
 
     @Autowired
-    private UtilisateurRepository utilisateurRepository;
+    private SignalementCourantRepository signalementCourantRepository;
 
     @Autowired
-    private UtilisateurInfoRepository utilisateurInfoRepository;
+    private SignalementStatistiquesService signalementStatistiquesService;
 
     @Autowired
-    private UtilisateurRoleRepository utilisateurRoleRepository;
+    private UtilisateurRepository utilisateurRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private SignalementDoublonService signalementDoublonService;
 
     @Autowired
-    private UtilisateurEtatRepository utilisateurEtatRepository;
+    private UtilisateurInfoRepository utilisateurInfoRepository;
 
     @Autowired
-    private EtatCompteRepository etatCompteRepository;
+    private UtilisateurRoleRepository utilisateurRoleRepository;
+
+    @Autowired
+    private UtilisateurEtatRepository utilisateurEtatRepository;
 
     @Autowired
     private EntrepriseRepository entrepriseRepository;
@@ -65,6 +74,9 @@ public class FirestoreSyncFromFirebaseService {
     @Autowired
     private TransactionTemplate transactionTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Synchroniser tous les signalements depuis Firestore
      * Chaque document est traité dans sa propre transaction pour isolation des erreurs
@@ -202,14 +214,15 @@ public class FirestoreSyncFromFirebaseService {
                             Double latitude = Double.parseDouble(data.get("latitude").toString());
                             Double longitude = Double.parseDouble(data.get("longitude").toString());
                             String source = data.getOrDefault("source", "FIREBASE").toString();
-                            String description = data.getOrDefault("description", "").toString();
+                            String description = SignalementService.normaliserDescription(
+                                    data.getOrDefault("description", "").toString());
 
                             logger.info("Traitement signalement - User: {}, Lat: {}, Lng: {}, Source: {}", 
                                 idUtilisateur, latitude, longitude, source);
 
-                            // Vérifier si le signalement existe déjà (par coordonnées et utilisateur)
-                            List<Signalement> existingSignalements = signalementRepository
-                                    .findByIdUtilisateurAndLatitudeAndLongitude(idUtilisateur, latitude, longitude);
+                            // Vérifier si le signalement existe déjà (par identifiant de document, jamais par proximité)
+                            List<Signalement> existingSignalements = signalementExistant(doc.getId(),
+                                    idUtilisateur, latitude, longitude);
 
                             Signalement signalement;
                             boolean isNew = existingSignalements.isEmpty();
@@ -221,27 +234,61 @@ public class FirestoreSyncFromFirebaseService {
                                 signalement.setLatitude(latitude);
                                 signalement.setLongitude(longitude);
                                 signalement.setSource(source);
+                                signalement.setDescription(description);
+                                signalement.setIdFirestore(doc.getId());
+                                signalement.setIdDoublonDe(signalementDoublonService.doublonProbable(latitude, longitude));
                                 signalement.setDateCreation(extractDate(data.get("date_creation")));
                                 signalementRepository.save(signalement);
 
                                 // Créer le statut initial
                                 String statutCode = data.getOrDefault("statut", "NOUVEAU").toString();
-                                StatutSignalement statut = statutSignalementRepository.findByCode(statutCode)
-                                        .orElse(statutSignalementRepository.findByCode("NOUVEAU")
-                                                .orElseThrow(() -> new RuntimeException("Statut NOUVEAU non trouvé")));
+                                if (!referentielRegistry.statuts().contient(statutCode)) {
+                                    statutCode = "NOUVEAU";
+                                }
+                                Long idStatut = referentielRegistry.statuts().getIdObligatoire(statutCode);
 
                                 SignalementStatut signalementStatut = new SignalementStatut();
                                 signalementStatut.setIdSignalement(signalement.getIdSignalement());
-                                signalementStatut.setIdStatut(statut.getIdStatut());
+                                signalementStatut.setIdStatut(idStatut);
                                 signalementStatut.setDateDebut(signalement.getDateCreation());
                                 signalementStatutRepository.save(signalementStatut);
 
+                                SignalementCourant courant = new SignalementCourant(signalement.getIdSignalement());
+                                courant.setIdStatut(idStatut);
+                                courant.setCodeStatut(statutCode);
+                                courant.setDateDebutStatut(signalementStatut.getDateDebut());
+                                courant.setDateModification(signalementStatut.getDateDebut());
+                                signalementCourantRepository.save(courant);
+                                signalementStatistiquesService.enregistrerDelta(null,
+                                        SignalementStatistiquesService.Contribution.de(courant));
+
+                                eventPublisher.publishEvent(new SignalementEvent(this, signalement,
+                                        SignalementEvent.EventType.IMPORTED));
+
                                 logger.info("Signalement créé: {}", signalement.getIdSignalement());
                                 return true; // Créé
                             } else {
                                 // Mettre à jour si nécessaire
                                 signalement = existingSignalements.get(0);
                                 logger.info("Signalement existant: {}", signalement.getIdSignalement());
+
+                                // Import antérieur à id_firestore (V11) : rattaché à son document
+                                boolean modifie = false;
+                                if (signalement.getIdFirestore() == null
+                                        && !doc.getId().equals(signalement.getIdSignalement().toString())) {
+                                    signalement.setIdFirestore(doc.getId());
+                                    modifie = true;
+                                }
+                                // Description perdue par les imports antérieurs à la colonne (V7)
+                                if (signalement.getDescription() == null && description != null) {
+                                    signalement.setDescription(description);
+                                    modifie = true;
+                                }
+                                if (modifie) {
+                                    signalementRepository.save(signalement);
+                                    eventPublisher.publishEvent(new SignalementEvent(this, signalement,
+                                            SignalementEvent.EventType.UPDATED));
+                                }
                                 return false; // Mis à jour
                             }
                         } catch (Exception e) {
@@ -366,25 +413,25 @@ public class FirestoreSyncFromFirebaseService {
 
                                 // Assigner le rôle
                                 String roleCode = data.getOrDefault("role", "USER").toString();
-                                Role role = roleRepository.findByCode(roleCode)
-                                        .orElse(roleRepository.findByCode("USER")
-                                                .orElseThrow(() -> new RuntimeException("Rôle USER non trouvé")));
+                                if (!referentielRegistry.roles().contient(roleCode)) {
+                                    roleCode = "USER";
+                                }
 
                                 UtilisateurRole utilisateurRole = new UtilisateurRole();
                                 utilisateurRole.setIdUtilisateur(utilisateur.getIdUtilisateur());
-                                utilisateurRole.setIdRole(role.getIdRole());
+                                utilisateurRole.setIdRole(referentielRegistry.roles().getIdObligatoire(roleCode));
                                 utilisateurRole.setDateDebut(utilisateur.getDateCreation());
                                 utilisateurRoleRepository.save(utilisateurRole);
 
                                 // Assigner l'état du compte
                                 String etatCode = data.getOrDefault("etat_compte", "ACTIF").toString();
-                                EtatCompte etat = etatCompteRepository.findByCode(etatCode)
-                                        .orElse(etatCompteRepository.findByCode("ACTIF")
-                                                .orElseThrow(() -> new RuntimeException("État ACTIF non trouvé")));
+                                if (!referentielRegistry.etats().contient(etatCode)) {
+                                    etatCode = "ACTIF";
+                                }
 
                                 UtilisateurEtat utilisateurEtat = new UtilisateurEtat();
                                 utilisateurEtat.setIdUtilisateur(utilisateur.getIdUtilisateur());
-                                utilisateurEtat.setIdEtat(etat.getIdEtat());
+                                utilisateurEtat.setIdEtat(referentielRegistry.etats().getIdObligatoire(etatCode));
                                 utilisateurEtat.setDateDebut(utilisateur.getDateCreation());
                                 utilisateurEtatRepository.save(utilisateurEtat);
 
@@ -460,6 +507,32 @@ public class FirestoreSyncFromFirebaseService {
         return result;
     }
 
+    /**
+     * Signalement déjà importé pour ce document : exporté depuis PostgreSQL (identifiant du document
+     * = id_signalement), importé avec son id_firestore, ou importé avant V11 (même auteur, mêmes
+     * coordonnées exactes, sans id_firestore). Un signalement voisin n'est jamais confondu avec le document.
+     */
+    private List<Signalement> signalementExistant(String idDocument, UUID idUtilisateur,
+                                                  Double latitude, Double longitude) {
+        try {
+            Optional<Signalement> exporte = signalementRepository.findById(UUID.fromString(idDocument));
+            if (exporte.isPresent()) {
+                return List.of(exporte.get());
+            }
+        } catch (IllegalArgumentException e) {
+            // Identifiant attribué par Firestore (document créé sur le mobile)
+        }
+        Optional<Signalement> importe = signalementRepository.findByIdFirestore(idDocument);
+        if (importe.isPresent()) {
+            return List.of(importe.get());
+        }
+        return signalementRepository.findByIdUtilisateurAndLatitudeAndLongitude(idUtilisateur, latitude, longitude)
+                .stream()
+                .filter(signalement -> signalement.getIdFirestore() == null)
+                .limit(1)
+                .toList();
+    }
+
     /**
      * Extraire une LocalDateTime depuis un objet Firestore
      */
@@ -6,10 +6,13 @@ import com.example.demo.entite.TentativeConnexion;
 import com.example.demo.entite.Utilisateur;
 import com.example.demo.event.EntrepriseEvent;
 import com.example.demo.event.SignalementEvent;
+import com.example.demo.event.SignalementsStatutEvent;
 import com.example.demo.event.UtilisateurEvent;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
 import com.google.cloud.firestore.WriteResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,7 +24,9 @@ import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -45,6 +50,9 @@ public class FirestoreSyncService {
     private static final String COLLECTION_ENTREPRISES = "entreprises";
     private static final String COLLECTION_TENTATIVES_CONNEXION = "tentatives_connexion";
 
+    // Nombre maximal d'écritures par WriteBatch Firestore
+    private static final int TAILLE_MAX_BATCH = 500;
+
     /**
      * Synchroniser un signalement vers Firestore après commit de transaction
      */
@@ -63,6 +71,7 @@ public class FirestoreSyncService {
             switch (event.getEventType()) {
                 case CREATED, UPDATED -> syncSignalement(signalement, documentId);
                 case DELETED -> deleteSignalement(documentId);
+                case IMPORTED -> logger.debug("Signalement importé depuis Firestore - pas de resynchronisation: {}", documentId);
             }
         } catch (Exception e) {
             logger.error("Erreur lors de la synchronisation Firestore du signalement: {}", e.getMessage(), e);
@@ -70,6 +79,35 @@ public class FirestoreSyncService {
         }
     }
 
+    /**
+     * Synchroniser un changement de statut en masse : écritures partielles groupées en WriteBatch
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSignalementsStatutEvent(SignalementsStatutEvent event) {
+        if (firestore == null) {
+            logger.debug("Firestore désactivé - changement de statut en masse ignoré");
+            return;
+        }
+
+        try {
+            Map<String, Object> champs = firestoreMapper.statutToFirestoreFields(event.getCodeStatut(), event.getDateDebut());
+            List<UUID> ids = event.getIdsSignalement();
+            for (int debut = 0; debut < ids.size(); debut += TAILLE_MAX_BATCH) {
+                WriteBatch batch = firestore.batch();
+                for (UUID id : ids.subList(debut, Math.min(debut + TAILLE_MAX_BATCH, ids.size()))) {
+                    DocumentReference docRef = firestore.collection(COLLECTION_SIGNALEMENTS)
+                            .document(firestoreMapper.getFirestoreDocumentId(id));
+                    batch.set(docRef, champs, SetOptions.merge());
+                }
+                batch.commit().get();
+            }
+            logger.info("Statut {} synchronisé vers Firestore pour {} signalements", event.getCodeStatut(), ids.size());
+        } catch (Exception e) {
+            logger.error("Erreur lors de la synchronisation Firestore du changement de statut: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Synchroniser un utilisateur vers Firestore après commit de transaction
      */
@@ -118,12 +156,13 @@ public class FirestoreSyncService {
 
     /**
      * Synchroniser un signalement vers Firestore
+     * Fusion : les champs écrits par le mobile sur le document (photos, auteur Firebase) sont conservés
      */
     private void syncSignalement(Signalement signalement, String documentId) throws ExecutionException, InterruptedException {
         Map<String, Object> document = firestoreMapper.signalementToFirestoreDocument(signalement);
         
         DocumentReference docRef = firestore.collection(COLLECTION_SIGNALEMENTS).document(documentId);
-        ApiFuture<WriteResult> result = docRef.set(document);
+        ApiFuture<WriteResult> result = docRef.set(document, SetOptions.merge());
         
         WriteResult writeResult = result.get();
         logger.info("Signalement synchronisé vers Firestore: {} à {}", documentId, writeResult.getUpdateTime());
@@ -0,0 +1,29 @@
+package com.example.demo.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Version d'historique d'un signalement (ligne signalement_statut ou signalement_detail),
+ * codes statut et nom d'entreprise résolus dans la même requête
+ */
+public interface HistoriqueVersionView {
+
+    String getType(); // STATUT | DETAIL
+
+    Long getIdVersion();
+
+    LocalDateTime getDateDebut();
+
+    LocalDateTime getDateFin();
+
+    String getStatut();
+
+    BigDecimal getSurfaceM2();
+
+    BigDecimal getBudget();
+
+    Long getIdEntreprise();
+
+    String getEntreprise();
+}
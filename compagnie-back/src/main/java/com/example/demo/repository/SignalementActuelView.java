@@ -0,0 +1,37 @@
+package com.example.demo.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection de l'état actuel d'un signalement
+ * (identité + statut ouvert + détail ouvert) lue en une seule requête ;
+ * le nom de l'entreprise est résolu par EntrepriseCache
+ */
+public interface SignalementActuelView {
+
+    UUID getIdSignalement();
+
+    UUID getIdUtilisateur();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    String getSource();
+
+    LocalDateTime getDateCreation();
+
+    String getDescription();
+
+    UUID getIdDoublonDe();
+
+    String getStatut();
+
+    BigDecimal getSurfaceM2();
+
+    BigDecimal getBudget();
+
+    Long getIdEntreprise();
+}
@@ -0,0 +1,71 @@
+package com.example.demo.repository;
+
+import com.example.demo.entite.SignalementCourant;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SignalementCourantRepository extends JpaRepository<SignalementCourant, UUID> {
+
+    /**
+     * Lire la ligne en la verrouillant (reprise après conflit : attendre l'écrivain en cours plutôt que recommencer la course)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM SignalementCourant c WHERE c.idSignalement = :id")
+    Optional<SignalementCourant> findPourModification(@Param("id") UUID idSignalement);
+
+    @Modifying
+    @Query(value = "DELETE FROM signalement_courant", nativeQuery = true)
+    int viderProjection();
+
+    /**
+     * Recalculer la projection depuis les lignes ouvertes de l'historique
+     * (DISTINCT ON : en cas de lignes ouvertes multiples, la plus récente l'emporte)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO signalement_courant (id_signalement, id_statut, code_statut, date_debut_statut, " +
+            "surface_m2, budget, id_entreprise, date_modification) " +
+            "SELECT DISTINCT ON (s.id_signalement) s.id_signalement, ss.id_statut, st.code, ss.date_debut, " +
+            "d.surface_m2, d.budget, d.id_entreprise, GREATEST(s.date_creation, ss.date_debut, d.date_debut) " +
+            "FROM signalement s " +
+            "LEFT JOIN signalement_statut ss ON ss.id_signalement = s.id_signalement AND ss.date_fin IS NULL " +
+            "LEFT JOIN statut_signalement st ON st.id_statut = ss.id_statut " +
+            "LEFT JOIN signalement_detail d ON d.id_signalement = s.id_signalement AND d.date_fin IS NULL " +
+            "ORDER BY s.id_signalement, ss.date_debut DESC NULLS LAST, d.date_debut DESC NULLS LAST", nativeQuery = true)
+    int reconstruireProjection();
+
+    /**
+     * Nombre, surface et budget cumulés par statut (recalcul complet des statistiques)
+     */
+    @Query("SELECT c.codeStatut AS statut, COUNT(c) AS nombre, SUM(c.surfaceM2) AS surface, " +
+            "SUM(c.budget) AS budget FROM SignalementCourant c GROUP BY c.codeStatut")
+    List<StatistiqueStatutView> statistiquesParStatut();
+
+    /**
+     * Verrouiller les signalements à faire changer de statut (ids inconnus et statut identique exclus)
+     */
+    @Query(value = "SELECT c.id_signalement AS idSignalement, c.code_statut AS statut, " +
+            "c.surface_m2 AS surfaceM2, c.budget AS budget FROM signalement_courant c " +
+            "WHERE c.id_signalement IN (:ids) AND c.code_statut IS DISTINCT FROM :codeStatut " +
+            "ORDER BY c.id_signalement FOR UPDATE", nativeQuery = true)
+    List<SignalementTransitionView> verrouillerPourTransition(@Param("ids") Collection<UUID> ids,
+                                                             @Param("codeStatut") String codeStatut);
+
+    @Modifying
+    @Query(value = "UPDATE signalement_courant SET id_statut = :idStatut, code_statut = :codeStatut, " +
+            "date_debut_statut = :dateDebut, date_modification = :dateDebut, version = version + 1 " +
+            "WHERE id_signalement IN (:ids)", nativeQuery = true)
+    int changerStatut(@Param("ids") Collection<UUID> ids, @Param("idStatut") Long idStatut,
+                      @Param("codeStatut") String codeStatut, @Param("dateDebut") LocalDateTime dateDebut);
+}
@@ -2,8 +2,12 @@ package com.example.demo.repository;
 
 import com.example.demo.entite.SignalementDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +15,12 @@ import java.util.UUID;
 public interface SignalementDetailRepository extends JpaRepository<SignalementDetail, Long> {
     
     Optional<SignalementDetail> findByIdSignalementAndDateFinIsNull(UUID idSignalement);
+
+    /**
+     * Clore le détail ouvert d'un signalement (avant l'insertion du suivant)
+     */
+    @Modifying
+    @Query(value = "UPDATE signalement_detail SET date_fin = :dateFin " +
+            "WHERE id_signalement = :id AND date_fin IS NULL", nativeQuery = true)
+    int clore(@Param("id") UUID idSignalement, @Param("dateFin") LocalDateTime dateFin);
 }
@@ -1,14 +1,48 @@
 package com.example.demo.repository;
 
 import com.example.demo.entite.Signalement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface SignalementRepository extends JpaRepository<Signalement, UUID> {
+
+    /**
+     * Lecture de l'état actuel via la projection signalement_courant (jointures sur clé primaire)
+     */
+    String SELECT_ACTUEL = "SELECT s.idSignalement AS idSignalement, s.idUtilisateur AS idUtilisateur, " +
+            "s.latitude AS latitude, s.longitude AS longitude, s.source AS source, " +
+            "s.dateCreation AS dateCreation, s.description AS description, s.idDoublonDe AS idDoublonDe, " +
+            "c.codeStatut AS statut, c.surfaceM2 AS surfaceM2, " +
+            "c.budget AS budget, c.idEntreprise AS idEntreprise " +
+            "FROM Signalement s " +
+            "LEFT JOIN SignalementCourant c ON c.idSignalement = s.idSignalement ";
+
+    /**
+     * Filtres optionnels de la pagination par curseur
+     * (un UUID null ne peut pas être typé par PostgreSQL dans "IS NULL", d'où le drapeau tousUtilisateurs)
+     */
+    String FILTRES_PAGE = "WHERE (:statut IS NULL OR c.codeStatut = :statut) " +
+            "AND (:source IS NULL OR s.source = :source) " +
+            "AND (:tousUtilisateurs = true OR s.idUtilisateur = :idUtilisateur) ";
+
+    String ORDRE_PAGE = "ORDER BY s.dateCreation DESC, s.idSignalement DESC";
     
     List<Signalement> findByIdUtilisateur(UUID idUtilisateur);
     
@@ -17,4 +51,117 @@ public interface SignalementRepository extends JpaRepository<Signalement, UUID>
     List<Signalement> findAllByOrderByDateCreationDesc();
 
      List<Signalement> findByIdUtilisateurAndLatitudeAndLongitude(UUID idUtilisateur, Double latitude, Double longitude);
+
+    Optional<Signalement> findByIdFirestore(String idFirestore);
+
+    @Query(SELECT_ACTUEL + "ORDER BY s.dateCreation DESC")
+    List<SignalementActuelView> findAllActuels();
+
+    @Query(SELECT_ACTUEL + "WHERE s.idUtilisateur = :idUtilisateur")
+    List<SignalementActuelView> findActuelsByUtilisateur(@Param("idUtilisateur") UUID idUtilisateur);
+
+    @Query(SELECT_ACTUEL + "WHERE s.idSignalement = :idSignalement")
+    Optional<SignalementActuelView> findActuelById(@Param("idSignalement") UUID idSignalement);
+
+    @Query(SELECT_ACTUEL + "WHERE s.idSignalement IN :ids")
+    List<SignalementActuelView> findActuelsByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Historique fusionné statut + détail d'un signalement (plus récent d'abord)
+     * (partitions actives et archivées, vues V12)
+     */
+    String SELECT_HISTORIQUE = "SELECT h.type AS type, h.id_version AS idVersion, h.date_debut AS dateDebut, " +
+            "h.date_fin AS dateFin, h.statut AS statut, h.surface_m2 AS surfaceM2, h.budget AS budget, " +
+            "h.id_entreprise AS idEntreprise, h.entreprise AS entreprise FROM (" +
+            "SELECT 'STATUT' AS type, ss.id_signalement_statut AS id_version, ss.date_debut, ss.date_fin, " +
+            "st.code AS statut, CAST(NULL AS NUMERIC) AS surface_m2, CAST(NULL AS NUMERIC) AS budget, " +
+            "CAST(NULL AS BIGINT) AS id_entreprise, CAST(NULL AS VARCHAR) AS entreprise " +
+            "FROM v_signalement_statut_historique ss JOIN statut_signalement st ON st.id_statut = ss.id_statut " +
+            "WHERE ss.id_signalement = :idSignalement " +
+            "UNION ALL " +
+            "SELECT 'DETAIL', d.id_detail, d.date_debut, d.date_fin, NULL, d.surface_m2, d.budget, " +
+            "d.id_entreprise, e.nom " +
+            "FROM v_signalement_detail_historique d LEFT JOIN entreprise e ON e.id_entreprise = d.id_entreprise " +
+            "WHERE d.id_signalement = :idSignalement) h ";
+
+    String ORDRE_HISTORIQUE = "ORDER BY h.date_debut DESC, h.type DESC, h.id_version DESC LIMIT :limite";
+
+    @Query(value = SELECT_HISTORIQUE + ORDRE_HISTORIQUE, nativeQuery = true)
+    List<HistoriqueVersionView> findPremierePageHistorique(@Param("idSignalement") UUID idSignalement,
+                                                           @Param("limite") int limite);
+
+    /**
+     * Page suivante de l'historique, après la position (date_debut, type, id_version) du curseur
+     */
+    @Query(value = SELECT_HISTORIQUE +
+            "WHERE (h.date_debut, h.type, h.id_version) < (:dateCurseur, :typeCurseur, :idCurseur) " +
+            ORDRE_HISTORIQUE, nativeQuery = true)
+    List<HistoriqueVersionView> findPageHistoriqueApres(@Param("idSignalement") UUID idSignalement,
+                                                        @Param("dateCurseur") LocalDateTime dateCurseur,
+                                                        @Param("typeCurseur") String typeCurseur,
+                                                        @Param("idCurseur") Long idCurseur,
+                                                        @Param("limite") int limite);
+
+    /**
+     * Première page (ordre date_creation DESC, id_signalement DESC)
+     */
+    @Query(SELECT_ACTUEL + FILTRES_PAGE + ORDRE_PAGE)
+    List<SignalementActuelView> findPremierePageActuels(@Param("statut") String statut,
+                                                        @Param("source") String source,
+                                                        @Param("tousUtilisateurs") boolean tousUtilisateurs,
+                                                        @Param("idUtilisateur") UUID idUtilisateur,
+                                                        Pageable pageable);
+
+    /**
+     * Page suivante : uniquement les lignes strictement après le curseur (keyset, sans OFFSET)
+     */
+    @Query(SELECT_ACTUEL + FILTRES_PAGE +
+            "AND (s.dateCreation < :dateCurseur " +
+            "OR (s.dateCreation = :dateCurseur AND s.idSignalement < :idCurseur)) " + ORDRE_PAGE)
+    List<SignalementActuelView> findPageActuelsApres(@Param("statut") String statut,
+                                                     @Param("source") String source,
+                                                     @Param("tousUtilisateurs") boolean tousUtilisateurs,
+                                                     @Param("idUtilisateur") UUID idUtilisateur,
+                                                     @Param("dateCurseur") LocalDateTime dateCurseur,
+                                                     @Param("idCurseur") UUID idCurseur,
+                                                     Pageable pageable);
+
+    /**
+     * Recherche plein texte dans les descriptions (index GIN sur description_recherche, V7),
+     * combinée aux filtres statut et zone ; les plus pertinents d'abord
+     * (zone = false : bornes ignorées)
+     */
+    @Query(value = "SELECT s.id_signalement AS idSignalement, s.id_utilisateur AS idUtilisateur, " +
+            "s.latitude AS latitude, s.longitude AS longitude, s.source AS source, " +
+            "s.date_creation AS dateCreation, s.description AS description, s.id_doublon_de AS idDoublonDe, " +
+            "c.code_statut AS statut, " +
+            "c.surface_m2 AS surfaceM2, c.budget AS budget, c.id_entreprise AS idEntreprise " +
+            "FROM signalement s " +
+            "LEFT JOIN signalement_courant c ON c.id_signalement = s.id_signalement " +
+            "CROSS JOIN websearch_to_tsquery('francais_sans_accent', :texte) q " +
+            "WHERE s.description_recherche @@ q " +
+            "AND (CAST(:statut AS VARCHAR) IS NULL OR c.code_statut = :statut) " +
+            "AND (:zone = false OR (s.latitude BETWEEN :minLat AND :maxLat " +
+            "AND s.longitude BETWEEN :minLng AND :maxLng)) " +
+            "ORDER BY ts_rank(s.description_recherche, q) DESC, s.date_creation DESC, s.id_signalement DESC " +
+            "LIMIT :limite", nativeQuery = true)
+    List<SignalementActuelView> rechercherActuels(@Param("texte") String texte,
+                                                  @Param("statut") String statut,
+                                                  @Param("zone") boolean zone,
+                                                  @Param("minLat") double minLat,
+                                                  @Param("minLng") double minLng,
+                                                  @Param("maxLat") double maxLat,
+                                                  @Param("maxLng") double maxLng,
+                                                  @Param("limite") int limite);
+
+    /**
+     * Lecture en flux (curseur côté serveur) de l'état actuel de tous les signalements.
+     * Doit être consommé dans une transaction et fermé après usage.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_ACTUEL)
+    Stream<SignalementActuelView> streamAllActuels();
 }
@@ -2,8 +2,13 @@ package com.example.demo.repository;
 
 import com.example.demo.entite.SignalementStatut;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +16,22 @@ import java.util.UUID;
 public interface SignalementStatutRepository extends JpaRepository<SignalementStatut, Long> {
     
     Optional<SignalementStatut> findByIdSignalementAndDateFinIsNull(UUID idSignalement);
+
+    /**
+     * Clore en une requête les statuts ouverts d'un ensemble de signalements
+     */
+    @Modifying
+    @Query(value = "UPDATE signalement_statut SET date_fin = :dateFin " +
+            "WHERE id_signalement IN (:ids) AND date_fin IS NULL", nativeQuery = true)
+    int clore(@Param("ids") Collection<UUID> ids, @Param("dateFin") LocalDateTime dateFin);
+
+    /**
+     * Ouvrir en une requête le nouveau statut d'un ensemble de signalements
+     */
+    @Modifying
+    @Query(value = "INSERT INTO signalement_statut (id_signalement, id_statut, date_debut) " +
+            "SELECT s.id_signalement, :idStatut, :dateDebut FROM signalement s " +
+            "WHERE s.id_signalement IN (:ids)", nativeQuery = true)
+    int ouvrir(@Param("ids") Collection<UUID> ids, @Param("idStatut") Long idStatut,
+               @Param("dateDebut") LocalDateTime dateDebut);
 }
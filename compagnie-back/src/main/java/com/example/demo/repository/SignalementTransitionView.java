@@ -0,0 +1,18 @@
+package com.example.demo.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Ligne signalement_courant verrouillée avant un changement de statut en masse
+ */
+public interface SignalementTransitionView {
+
+    UUID getIdSignalement();
+
+    String getStatut();
+
+    BigDecimal getSurfaceM2();
+
+    BigDecimal getBudget();
+}
@@ -0,0 +1,17 @@
+package com.example.demo.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Agrégats de la projection signalement_courant pour un statut
+ */
+public interface StatistiqueStatutView {
+
+    String getStatut();
+
+    Long getNombre();
+
+    BigDecimal getSurface();
+
+    BigDecimal getBudget();
+}
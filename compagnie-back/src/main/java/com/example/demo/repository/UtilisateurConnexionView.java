@@ -0,0 +1,32 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection de connexion d'un utilisateur
+ * (identité + état ouvert + mot de passe ouvert + infos ouvertes + rôles actifs) lue en une seule requête
+ */
+public interface UtilisateurConnexionView {
+
+    UUID getIdUtilisateur();
+
+    String getEmail();
+
+    LocalDateTime getDateCreation();
+
+    int getEchecsConsecutifs();
+
+    String getCodeEtat();
+
+    Long getIdPassword();
+
+    String getPasswordHash();
+
+    String getNom();
+
+    String getPrenom();
+
+    // Codes des rôles actifs séparés par des virgules, null si aucun
+    String getRoles();
+}
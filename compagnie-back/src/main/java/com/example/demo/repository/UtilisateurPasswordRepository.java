@@ -2,8 +2,12 @@ package com.example.demo.repository;
 
 import com.example.demo.entite.UtilisateurPassword;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +15,12 @@ import java.util.UUID;
 public interface UtilisateurPasswordRepository extends JpaRepository<UtilisateurPassword, Long> {
     
     Optional<UtilisateurPassword> findByIdUtilisateurAndDateFinIsNull(UUID idUtilisateur);
+
+    /**
+     * Clore une version précise encore ouverte (0 si une autre transaction l'a déjà remplacée)
+     */
+    @Modifying
+    @Query(value = "UPDATE utilisateur_password SET date_fin = :dateFin " +
+            "WHERE id_password = :idPassword AND date_fin IS NULL", nativeQuery = true)
+    int clore(@Param("idPassword") Long idPassword, @Param("dateFin") LocalDateTime dateFin);
 }
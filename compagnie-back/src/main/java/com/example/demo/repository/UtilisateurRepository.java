@@ -2,6 +2,9 @@ package com.example.demo.repository;
 
 import com.example.demo.entite.Utilisateur;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -15,4 +18,44 @@ public interface UtilisateurRepository extends JpaRepository<Utilisateur, UUID>
     boolean existsByEmail(String email);
 
     Optional<Utilisateur> findByFirebaseUid(String firebaseUid);
+
+    /**
+     * Tout ce qu'il faut à la connexion en un aller-retour
+     * (versions ouvertes : index partiels idx_utilisateur_*_ouvert, partition utilisateur_etat_ouvert)
+     */
+    String SELECT_CONNEXION = "SELECT u.id_utilisateur AS idUtilisateur, u.email AS email, u.date_creation AS dateCreation, " +
+            "u.echecs_consecutifs AS echecsConsecutifs, ec.code AS codeEtat, p.id_password AS idPassword, " +
+            "p.password_hash AS passwordHash, ui.nom AS nom, ui.prenom AS prenom, " +
+            "(SELECT string_agg(r.code, ',' ORDER BY r.code) FROM utilisateur_role ur " +
+            "JOIN role r ON r.id_role = ur.id_role " +
+            "WHERE ur.id_utilisateur = u.id_utilisateur AND ur.date_fin IS NULL) AS roles " +
+            "FROM utilisateur u " +
+            "LEFT JOIN utilisateur_etat ue ON ue.id_utilisateur = u.id_utilisateur AND ue.date_fin IS NULL " +
+            "LEFT JOIN etat_compte ec ON ec.id_etat = ue.id_etat " +
+            "LEFT JOIN utilisateur_password p ON p.id_utilisateur = u.id_utilisateur AND p.date_fin IS NULL " +
+            "LEFT JOIN utilisateur_info ui ON ui.id_utilisateur = u.id_utilisateur AND ui.date_fin IS NULL ";
+
+    @Query(value = SELECT_CONNEXION + "WHERE u.email = :email", nativeQuery = true)
+    Optional<UtilisateurConnexionView> findConnexionByEmail(@Param("email") String email);
+
+    /**
+     * Rôles et état actuels au rafraîchissement d'un jeton
+     */
+    @Query(value = SELECT_CONNEXION + "WHERE u.id_utilisateur = :idUtilisateur", nativeQuery = true)
+    Optional<UtilisateurConnexionView> findConnexionById(@Param("idUtilisateur") UUID idUtilisateur);
+
+    /**
+     * Échec de connexion : incrément atomique (verrou de ligne jusqu'au commit), nouvelle valeur retournée
+     */
+    @Query(value = "UPDATE utilisateur SET echecs_consecutifs = echecs_consecutifs + 1 " +
+            "WHERE id_utilisateur = :idUtilisateur RETURNING echecs_consecutifs", nativeQuery = true)
+    int incrementerEchecsConsecutifs(@Param("idUtilisateur") UUID idUtilisateur);
+
+    /**
+     * Succès ou déblocage : remise à zéro (aucune écriture si déjà à zéro)
+     */
+    @Modifying
+    @Query(value = "UPDATE utilisateur SET echecs_consecutifs = 0 " +
+            "WHERE id_utilisateur = :idUtilisateur AND echecs_consecutifs <> 0", nativeQuery = true)
+    int reinitialiserEchecsConsecutifs(@Param("idUtilisateur") UUID idUtilisateur);
 }
@@ -2,22 +2,30 @@ package com.example.demo.service;
 
 import com.example.demo.DTO.*;
 import com.example.demo.entite.*;
+import com.example.demo.event.CompteEtatEvent;
 import com.example.demo.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Service
 public class AuthentificationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthentificationService.class);
+
     private static final int MAX_TENTATIVES = 3;
-    private static final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @Autowired
     private UtilisateurRepository utilisateurRepository;
@@ -29,27 +37,46 @@ public class AuthentificationService {
     private UtilisateurPasswordRepository utilisateurPasswordRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private ReferentielRegistry referentielRegistry;
 
     @Autowired
     private UtilisateurRoleRepository utilisateurRoleRepository;
 
     @Autowired
-    private EtatCompteRepository etatCompteRepository;
+    private UtilisateurEtatRepository utilisateurEtatRepository;
 
     @Autowired
-    private UtilisateurEtatRepository utilisateurEtatRepository;
+    private JournalConnexionService journalConnexionService;
+
+    @Autowired
+    private MotDePasseService motDePasseService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JetonService jetonService;
 
     @Autowired
-    private TentativeConnexionRepository tentativeConnexionRepository;
+    private ApplicationEventPublisher eventPublisher;
 
 
     /**
      * Inscription d'un nouvel utilisateur
+     * Hachage sur le pool BCrypt avant la transaction (aucune connexion occupée pendant le calcul)
+     * RejectedExecutionException si le pool BCrypt est saturé
      */
-    @Transactional
     public AuthResponse inscrire(InscriptionRequest request) {
-        // Vérifier si l'email existe déjà
+        // Vérifier si l'email existe déjà (avant de payer le hachage)
+        if (utilisateurRepository.existsByEmail(request.getEmail())) {
+            return new AuthResponse(false, "Cet email est déjà utilisé");
+        }
+        String passwordHash = motDePasseService.hacher(request.getPassword());
+        return transactionTemplate.execute(status -> inscrire(request, passwordHash));
+    }
+
+    private AuthResponse inscrire(InscriptionRequest request, String passwordHash) {
+        long marque = jetonService.marque();
         if (utilisateurRepository.existsByEmail(request.getEmail())) {
             return new AuthResponse(false, "Cet email est déjà utilisé");
         }
@@ -72,39 +99,41 @@ public class AuthentificationService {
         // Créer le mot de passe hashé
         UtilisateurPassword password = new UtilisateurPassword();
         password.setIdUtilisateur(utilisateur.getIdUtilisateur());
-        password.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        password.setPasswordHash(passwordHash);
         password.setDateDebut(LocalDateTime.now());
         utilisateurPasswordRepository.save(password);
 
         // Assigner le rôle USER par défaut
-        Role roleUser = roleRepository.findByCode("USER")
-                .orElseThrow(() -> new RuntimeException("Rôle USER non trouvé"));
-
         UtilisateurRole utilisateurRole = new UtilisateurRole();
         utilisateurRole.setIdUtilisateur(utilisateur.getIdUtilisateur());
-        utilisateurRole.setIdRole(roleUser.getIdRole());
+        utilisateurRole.setIdRole(referentielRegistry.roles().getIdObligatoire("USER"));
         utilisateurRole.setDateDebut(LocalDateTime.now());
         utilisateurRoleRepository.save(utilisateurRole);
 
         // Définir l'état ACTIF
-        EtatCompte etatActif = etatCompteRepository.findByCode("ACTIF")
-                .orElseThrow(() -> new RuntimeException("État ACTIF non trouvé"));
-
         UtilisateurEtat utilisateurEtat = new UtilisateurEtat();
         utilisateurEtat.setIdUtilisateur(utilisateur.getIdUtilisateur());
-        utilisateurEtat.setIdEtat(etatActif.getIdEtat());
+        utilisateurEtat.setIdEtat(referentielRegistry.etats().getIdObligatoire("ACTIF"));
         utilisateurEtat.setDateDebut(LocalDateTime.now());
         utilisateurEtatRepository.save(utilisateurEtat);
 
         // Créer la réponse
         UtilisateurResponse userResponse = buildUtilisateurResponse(utilisateur);
-        return new AuthResponse(true, "Inscription réussie", userResponse);
+        return avecJetons(new AuthResponse(true, "Inscription réussie", userResponse), marque);
     }
 
-        @Transactional
+    /**
+     * Connexion : une lecture (projection de connexion), vérification BCrypt hors transaction,
+     * puis écritures dans une transaction courte
+     * Un hash d'un autre coût que le coût courant est re-haché après succès (nouvelle version utilisateur_password)
+     * RejectedExecutionException si le pool BCrypt est saturé
+     */
     public AuthResponse connecter(LoginRequest request) {
-        // Rechercher l'utilisateur par email
-        Utilisateur utilisateur = utilisateurRepository.findByEmail(request.getEmail())
+        // Avant la lecture de l'état : un blocage validé entre-temps refuse le jeton émis
+        long marque = jetonService.marque();
+
+        // Identité, état, mot de passe, infos et rôles actuels en une requête
+        UtilisateurConnexionView utilisateur = utilisateurRepository.findConnexionByEmail(request.getEmail())
                 .orElse(null);
 
         if (utilisateur == null) {
@@ -114,84 +143,125 @@ public class AuthentificationService {
         }
 
         // Vérifier l'état du compte
-        UtilisateurEtat etatActuel = utilisateurEtatRepository
-                .findByIdUtilisateurAndDateFinIsNull(utilisateur.getIdUtilisateur())
-                .orElseThrow(() -> new RuntimeException("État du compte non trouvé"));
-
-        EtatCompte etat = etatCompteRepository.findById(etatActuel.getIdEtat())
-                .orElseThrow(() -> new RuntimeException("État non trouvé"));
+        String codeEtat = utilisateur.getCodeEtat();
+        if (codeEtat == null) {
+            throw new RuntimeException("État du compte non trouvé");
+        }
 
         // Vérifier si le compte est bloqué
-        if ("BLOQUE".equals(etat.getCode())) {
+        if ("BLOQUE".equals(codeEtat)) {
             return new AuthResponse(false, "Votre compte est bloqué suite à plusieurs tentatives de connexion échouées");
         }
 
         // Vérifier si le compte est inactif
-        if ("INACTIF".equals(etat.getCode())) {
+        if ("INACTIF".equals(codeEtat)) {
             return new AuthResponse(false, "Votre compte est inactif");
         }
 
-        // Récupérer le mot de passe actuel
-        UtilisateurPassword passwordActuel = utilisateurPasswordRepository
-                .findByIdUtilisateurAndDateFinIsNull(utilisateur.getIdUtilisateur())
-                .orElseThrow(() -> new RuntimeException("Mot de passe non trouvé"));
+        // Mot de passe actuel
+        if (utilisateur.getPasswordHash() == null) {
+            throw new RuntimeException("Mot de passe non trouvé");
+        }
 
         // Vérifier le mot de passe
-        if (!passwordEncoder.matches(request.getPassword(), passwordActuel.getPasswordHash())) {
-            // Enregistrer tentative échouée
-            enregistrerTentative(utilisateur.getIdUtilisateur(), false);
-
-            // Compter les échecs consécutifs
-            long echecsConsecutifs = compterEchecsConsecutifs(utilisateur.getIdUtilisateur());
+        if (!motDePasseService.verifier(request.getPassword(), utilisateur.getPasswordHash())) {
+            return transactionTemplate.execute(status -> echecConnexion(utilisateur.getIdUtilisateur()));
+        }
 
-            if (echecsConsecutifs >= MAX_TENTATIVES) {
-                // Bloquer le compte
-                bloquerCompte(utilisateur.getIdUtilisateur());
-                return new AuthResponse(false, "Compte bloqué après 3 tentatives échouées");
+        // Re-hacher au coût courant (sans faire échouer la connexion si le pool est saturé)
+        String nouveauHash = null;
+        if (motDePasseService.doitRehacher(utilisateur.getPasswordHash())) {
+            try {
+                nouveauHash = motDePasseService.hacher(request.getPassword());
+            } catch (RejectedExecutionException e) {
+                logger.debug("Re-hachage reporté pour {}: {}", utilisateur.getIdUtilisateur(), e.getMessage());
             }
-
-            int tentativesRestantes = MAX_TENTATIVES - (int) echecsConsecutifs;
-            AuthResponse response = new AuthResponse(false, "Email ou mot de passe incorrect");
-            response.setTentativesRestantes(tentativesRestantes);
-            return response;
         }
+        String hashRemplacant = nouveauHash;
 
         // Connexion réussie
-        enregistrerTentative(utilisateur.getIdUtilisateur(), true);
+        return transactionTemplate.execute(status -> {
+            enregistrerTentative(utilisateur.getIdUtilisateur(), true);
+            if (utilisateur.getEchecsConsecutifs() > 0) {
+                utilisateurRepository.reinitialiserEchecsConsecutifs(utilisateur.getIdUtilisateur());
+            }
+            if (hashRemplacant != null) {
+                remplacerHash(utilisateur.getIdUtilisateur(), utilisateur.getIdPassword(), hashRemplacant);
+            }
+            return avecJetons(new AuthResponse(true, "Connexion réussie", buildUtilisateurResponse(utilisateur)), marque);
+        });
+    }
 
-        UtilisateurResponse userResponse = buildUtilisateurResponse(utilisateur);
-        return new AuthResponse(true, "Connexion réussie", userResponse);
+    /**
+     * Nouveaux jetons à partir d'un jeton de rafraîchissement valide, avec les rôles et l'état actuels
+     * (une lecture en base, contrairement à la vérification d'un jeton d'accès)
+     */
+    public AuthResponse rafraichir(String refreshToken) {
+        JetonService.JetonVerifie jeton = jetonService.verifier(refreshToken, JetonService.RAFRAICHISSEMENT)
+                .orElse(null);
+        if (jeton == null) {
+            return new AuthResponse(false, "Jeton de rafraîchissement invalide ou expiré");
+        }
+        long marque = jetonService.marque();
+        UtilisateurConnexionView utilisateur = utilisateurRepository.findConnexionById(jeton.idUtilisateur())
+                .orElse(null);
+        if (utilisateur == null || !"ACTIF".equals(utilisateur.getCodeEtat())) {
+            return new AuthResponse(false, "Compte inactif ou bloqué");
+        }
+        return avecJetons(new AuthResponse(true, "Jetons renouvelés", buildUtilisateurResponse(utilisateur)), marque);
     }
 
-    private void enregistrerTentative(UUID idUtilisateur, boolean succes) {
-        TentativeConnexion tentative = new TentativeConnexion();
-        tentative.setIdUtilisateur(idUtilisateur);
-        tentative.setSucces(succes);
-        tentative.setDateTentative(LocalDateTime.now());
-        tentativeConnexionRepository.save(tentative);
+    private AuthResponse avecJetons(AuthResponse response, long marque) {
+        JetonService.Jetons jetons = jetonService.emettre(response.getUtilisateur(), marque);
+        response.setToken(jetons.acces());
+        response.setRefreshToken(jetons.rafraichissement());
+        response.setExpiresIn(jetons.dureeAccesSecondes());
+        return response;
+    }
+
+    private AuthResponse echecConnexion(UUID idUtilisateur) {
+        // Enregistrer tentative échouée
+        enregistrerTentative(idUtilisateur, false);
+
+        // Compter les échecs consécutifs (compteur atomique, sans relire l'historique)
+        int echecsConsecutifs = utilisateurRepository.incrementerEchecsConsecutifs(idUtilisateur);
+
+        if (echecsConsecutifs >= MAX_TENTATIVES) {
+            // Bloquer le compte
+            bloquerCompte(idUtilisateur);
+            return new AuthResponse(false, "Compte bloqué après 3 tentatives échouées");
+        }
+
+        int tentativesRestantes = MAX_TENTATIVES - echecsConsecutifs;
+        AuthResponse response = new AuthResponse(false, "Email ou mot de passe incorrect");
+        response.setTentativesRestantes(tentativesRestantes);
+        return response;
     }
 
     /**
-     * Compter les échecs consécutifs récents
+     * Nouvelle version du mot de passe (même mot de passe, coût courant), si la version vérifiée est toujours ouverte
      */
-    private long compterEchecsConsecutifs(UUID idUtilisateur) {
-        // Récupérer toutes les tentatives ordonnées par date décroissante
-        List<TentativeConnexion> tentatives = tentativeConnexionRepository
-                .findRecentTentativesByUtilisateur(idUtilisateur);
-
-        long count = 0;
-        for (TentativeConnexion tentative : tentatives) {
-            if (tentative.getSucces()) {
-                // Arrêter au premier succès
-                break;
-            }
-            count++;
+    private void remplacerHash(UUID idUtilisateur, Long idPassword, String nouveauHash) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        if (utilisateurPasswordRepository.clore(idPassword, maintenant) == 0) {
+            return; // changé ou re-haché entre-temps par une autre connexion
         }
-        return count;
+        UtilisateurPassword password = new UtilisateurPassword();
+        password.setIdUtilisateur(idUtilisateur);
+        password.setPasswordHash(nouveauHash);
+        password.setDateDebut(maintenant);
+        utilisateurPasswordRepository.save(password);
+    }
+
+    /**
+     * Journaliser la tentative (audit, par lots en arrière-plan : le blocage repose sur le compteur d'échecs)
+     */
+    private void enregistrerTentative(UUID idUtilisateur, boolean succes) {
+        journalConnexionService.enregistrer(idUtilisateur, succes);
     }
 
     /**
-     * Bloquer un compte utilisateur
+     * Bloquer un compte utilisateur (sans effet s'il l'est déjà : échecs concurrents au-delà du seuil)
      */
     @Transactional
     public void bloquerCompte(UUID idUtilisateur) {
@@ -199,24 +269,44 @@ public class AuthentificationService {
         UtilisateurEtat etatActuel = utilisateurEtatRepository
                 .findByIdUtilisateurAndDateFinIsNull(idUtilisateur)
                 .orElseThrow(() -> new RuntimeException("État actuel non trouvé"));
+        Long idEtatBloque = referentielRegistry.etats().getIdObligatoire("BLOQUE");
+        if (idEtatBloque.equals(etatActuel.getIdEtat())) {
+            return;
+        }
 
         etatActuel.setDateFin(LocalDateTime.now());
         utilisateurEtatRepository.save(etatActuel);
 
         // Créer un nouvel état BLOQUE
-        EtatCompte etatBloque = etatCompteRepository.findByCode("BLOQUE")
-                .orElseThrow(() -> new RuntimeException("État BLOQUE non trouvé"));
-
         UtilisateurEtat nouvelEtat = new UtilisateurEtat();
         nouvelEtat.setIdUtilisateur(idUtilisateur);
-        nouvelEtat.setIdEtat(etatBloque.getIdEtat());
+        nouvelEtat.setIdEtat(idEtatBloque);
         nouvelEtat.setRaison("Bloqué après 3 tentatives de connexion échouées");
         nouvelEtat.setDateDebut(LocalDateTime.now());
         utilisateurEtatRepository.save(nouvelEtat);
+
+        // Jetons révoqués après commit (JetonService)
+        eventPublisher.publishEvent(new CompteEtatEvent(this, idUtilisateur, "BLOQUE"));
     }
 
 
 
+    /**
+     * Réponse de connexion depuis la projection, sans autre requête
+     */
+    private UtilisateurResponse buildUtilisateurResponse(UtilisateurConnexionView utilisateur) {
+        UtilisateurResponse response = new UtilisateurResponse();
+        response.setIdUtilisateur(utilisateur.getIdUtilisateur());
+        response.setEmail(utilisateur.getEmail());
+        response.setDateCreation(utilisateur.getDateCreation());
+        response.setNom(utilisateur.getNom());
+        response.setPrenom(utilisateur.getPrenom());
+        response.setRoles(utilisateur.getRoles() == null ? new ArrayList<>()
+                : new ArrayList<>(Arrays.asList(utilisateur.getRoles().split(","))));
+        response.setEtat(utilisateur.getCodeEtat());
+        return response;
+    }
+
      private UtilisateurResponse buildUtilisateurResponse(Utilisateur utilisateur) {
         UtilisateurResponse response = new UtilisateurResponse();
         response.setIdUtilisateur(utilisateur.getIdUtilisateur());
@@ -235,18 +325,16 @@ public class AuthentificationService {
                 .findByIdUtilisateurAndDateFinIsNull(utilisateur.getIdUtilisateur());
 
         List<String> roles = utilisateurRoles.stream()
-                .map(ur -> roleRepository.findById(ur.getIdRole())
-                        .map(Role::getCode)
-                        .orElse(""))
+                .map(ur -> {
+                    String code = referentielRegistry.roles().getCode(ur.getIdRole());
+                    return code != null ? code : "";
+                })
                 .collect(Collectors.toList());
         response.setRoles(roles);
 
         // Récupérer l'état
         utilisateurEtatRepository.findByIdUtilisateurAndDateFinIsNull(utilisateur.getIdUtilisateur())
-                .ifPresent(ue -> {
-                    etatCompteRepository.findById(ue.getIdEtat())
-                            .ifPresent(etat -> response.setEtat(etat.getCode()));
-                });
+                .ifPresent(ue -> response.setEtat(referentielRegistry.etats().getCode(ue.getIdEtat())));
 
         return response;
     }
@@ -265,15 +353,18 @@ public class AuthentificationService {
         utilisateurEtatRepository.save(etatActuel);
 
         // Créer un nouvel état ACTIF
-        EtatCompte etatActif = etatCompteRepository.findByCode("ACTIF")
-                .orElseThrow(() -> new RuntimeException("État ACTIF non trouvé"));
-
         UtilisateurEtat nouvelEtat = new UtilisateurEtat();
         nouvelEtat.setIdUtilisateur(idUtilisateur);
-        nouvelEtat.setIdEtat(etatActif.getIdEtat());
+        nouvelEtat.setIdEtat(referentielRegistry.etats().getIdObligatoire("ACTIF"));
         nouvelEtat.setRaison("Compte débloqué par un administrateur");
         nouvelEtat.setDateDebut(LocalDateTime.now());
         utilisateurEtatRepository.save(nouvelEtat);
+
+        // Nouveau départ : le prochain échec ne rebloque pas immédiatement
+        utilisateurRepository.reinitialiserEchecsConsecutifs(idUtilisateur);
+
+        // Jetons antérieurs (état périmé) refusés après commit : reconnexion
+        eventPublisher.publishEvent(new CompteEtatEvent(this, idUtilisateur, "ACTIF"));
     }
 
     /**
@@ -281,14 +372,13 @@ public class AuthentificationService {
      */
     public List<UtilisateurResponse> getUtilisateursBloqués() {
         // Récupérer l'état BLOQUE
-        EtatCompte etatBloque = etatCompteRepository.findByCode("BLOQUE")
-                .orElseThrow(() -> new RuntimeException("État BLOQUE non trouvé"));
+        Long idEtatBloque = referentielRegistry.etats().getIdObligatoire("BLOQUE");
 
         // Trouver tous les utilisateurs avec l'état BLOQUE actif
         List<UtilisateurEtat> utilisateursBloqués = utilisateurEtatRepository
                 .findAll()
                 .stream()
-                .filter(ue -> ue.getIdEtat().equals(etatBloque.getIdEtat()) && ue.getDateFin() == null)
+                .filter(ue -> ue.getIdEtat().equals(idEtatBloque) && ue.getDateFin() == null)
                 .toList();
 
         // Construire les réponses
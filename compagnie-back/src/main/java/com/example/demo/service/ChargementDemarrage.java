@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+/**
+ * Chargement en mémoire lancé au démarrage par {@link ChargementsDemarrage}
+ * (référentiels, index, statistiques, maintenance des partitions)
+ * En cas d'échec, nouvelles tentatives espacées ; le composant reste utilisable entre-temps
+ * (chargement à la première utilisation).
+ */
+public interface ChargementDemarrage {
+
+    /**
+     * Nom du chargement dans les journaux
+     */
+    String nomChargement();
+
+    /**
+     * Charger ; une exception déclenche une nouvelle tentative
+     */
+    void charger();
+}
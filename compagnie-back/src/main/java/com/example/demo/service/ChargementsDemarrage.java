@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Lance les {@link ChargementDemarrage} une fois l'application prête, sans bloquer le démarrage :
+ * un chargement en échec est retenté en arrière-plan (attente doublée à chaque tentative, bornée)
+ */
+@Component
+public class ChargementsDemarrage {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChargementsDemarrage.class);
+
+    @Autowired
+    private List<ChargementDemarrage> chargements;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${demarrage.chargement.tentatives-max:5}")
+    private int tentativesMax;
+
+    @Value("${demarrage.chargement.attente-initiale-secondes:5}")
+    private long attenteInitialeSecondes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        for (ChargementDemarrage chargement : chargements) {
+            tenter(chargement, 1);
+        }
+    }
+
+    private void tenter(ChargementDemarrage chargement, int tentative) {
+        try {
+            chargement.charger();
+        } catch (Exception e) {
+            if (tentative >= tentativesMax) {
+                logger.error("{} : abandon après {} tentatives (chargement à la première utilisation): {}",
+                        chargement.nomChargement(), tentative, e.getMessage());
+                return;
+            }
+            long attente = attenteInitialeSecondes << (tentative - 1);
+            logger.warn("{} : échec de la tentative {}/{}, nouvel essai dans {} s: {}",
+                    chargement.nomChargement(), tentative, tentativesMax, attente, e.getMessage());
+            taskScheduler.schedule(() -> tenter(chargement, tentative + 1), Instant.now().plusSeconds(attente));
+        }
+    }
+}
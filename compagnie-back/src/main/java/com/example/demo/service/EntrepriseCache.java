@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.Entreprise;
+import com.example.demo.event.EntrepriseEvent;
+import com.example.demo.repository.EntrepriseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache borné des entreprises (id → entité, dont le nom)
+ * Rafraîchi par les EntrepriseEvent ; métriques entreprise.cache{resultat=hit|miss}
+ */
+@Component
+public class EntrepriseCache {
+
+    @Autowired
+    private EntrepriseRepository entrepriseRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${entreprise.cache.taille-max:1000}")
+    private int tailleMax;
+
+    private final Map<Long, Entreprise> entreprises = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void enregistrerMetriques() {
+        hits = Counter.builder("entreprise.cache").tag("resultat", "hit")
+                .description("Entreprises trouvées dans le cache").register(meterRegistry);
+        misses = Counter.builder("entreprise.cache").tag("resultat", "miss")
+                .description("Entreprises lues en base").register(meterRegistry);
+        Gauge.builder("entreprise.cache.taille", entreprises, Map::size)
+                .description("Nombre d'entreprises en cache").register(meterRegistry);
+    }
+
+    /**
+     * Entreprise par id (lue en base au premier accès)
+     */
+    public Optional<Entreprise> trouver(Long idEntreprise) {
+        if (idEntreprise == null) {
+            return Optional.empty();
+        }
+        Entreprise entreprise = entreprises.get(idEntreprise);
+        if (entreprise != null) {
+            hits.increment();
+            return Optional.of(entreprise);
+        }
+
+        misses.increment();
+        Optional<Entreprise> lue = entrepriseRepository.findById(idEntreprise);
+        lue.ifPresent(this::memoriser);
+        return lue.map(e -> entreprises.getOrDefault(e.getIdEntreprise(), e));
+    }
+
+    /**
+     * Nom de l'entreprise, ou null si l'id est absent ou inconnu
+     */
+    public String getNom(Long idEntreprise) {
+        return trouver(idEntreprise).map(Entreprise::getNom).orElse(null);
+    }
+
+    /**
+     * Remplacer l'entrée après commit d'une création / mise à jour d'entreprise
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntrepriseEvent(EntrepriseEvent event) {
+        Entreprise entreprise = event.getEntreprise();
+        if (entreprise == null || entreprise.getIdEntreprise() == null) {
+            return;
+        }
+        if (entreprise.getNom() != null) {
+            memoriser(entreprise);
+        } else {
+            entreprises.remove(entreprise.getIdEntreprise());
+        }
+    }
+
+    /**
+     * Vider le cache (modification directe de la table entreprise)
+     */
+    public void invaliderTout() {
+        entreprises.clear();
+    }
+
+    private void memoriser(Entreprise entreprise) {
+        if (entreprises.size() >= tailleMax && !entreprises.containsKey(entreprise.getIdEntreprise())) {
+            entreprises.clear();
+        }
+        // Copie détachée : l'entité JPA peut être modifiée par l'appelant
+        entreprises.put(entreprise.getIdEntreprise(), new Entreprise(entreprise.getIdEntreprise(), entreprise.getNom()));
+    }
+}
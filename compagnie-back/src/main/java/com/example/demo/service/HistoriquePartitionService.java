@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintenance des tables d'historique partitionnées par mois (migration V6)
+ * Crée à l'avance les partitions des prochains mois et déplace vers <table>_archive
+ * les partitions au-delà de l'horizon de rétention. Les lignes ouvertes restent dans
+ * la partition chaude <table>_ouvert et ne sont jamais archivées ; l'historique d'un
+ * signalement lit aussi les archives (vues v_signalement_*_historique, V12).
+ * Partition mensuelle manquante : les lignes closes (V12) et les tentatives de connexion (V10)
+ * tombent dans la partition par défaut et sont reprises à la création de la partition.
+ */
+@Service
+public class HistoriquePartitionService implements ChargementDemarrage {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoriquePartitionService.class);
+
+    // Partitionnées par date_fin (lignes closes uniquement)
+    private static final List<String> HISTORIQUES = List.of("signalement_statut", "signalement_detail", "utilisateur_etat");
+
+    // Partitionnée par date_tentative
+    private static final String TENTATIVES = "tentative_connexion";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${historique.partitions.mois-avance:3}")
+    private int moisAvance;
+
+    @Value("${historique.archivage.active:true}")
+    private boolean archivageActif;
+
+    @Value("${historique.archivage.horizon-mois:12}")
+    private int horizonMois;
+
+    @Value("${historique.archivage.horizon-mois-tentatives:3}")
+    private int horizonMoisTentatives;
+
+    @Override
+    public String nomChargement() {
+        return "Partitions d'historique";
+    }
+
+    /**
+     * Partitions à jour au démarrage
+     */
+    @Override
+    public void charger() {
+        maintenir();
+    }
+
+    /**
+     * Maintenance quotidienne : création puis archivage
+     */
+    @Scheduled(cron = "${historique.partitions.cron:0 30 3 * * *}")
+    public void maintenirPlanifie() {
+        try {
+            maintenir();
+        } catch (Exception e) {
+            logger.error("Maintenance des partitions d'historique en échec: {}", e.getMessage(), e);
+        }
+    }
+
+    public synchronized void maintenir() {
+        for (String table : HISTORIQUES) {
+            creerPartitions(table);
+        }
+        creerPartitions(TENTATIVES);
+
+        if (archivageActif) {
+            for (String table : HISTORIQUES) {
+                archiver(table, horizonMois);
+            }
+            archiver(TENTATIVES, horizonMoisTentatives);
+        }
+    }
+
+    private void creerPartitions(String table) {
+        Integer creees = jdbcTemplate.queryForObject("SELECT creer_partitions_mensuelles(?, ?)",
+                Integer.class, table, moisAvance);
+        if (creees != null && creees > 0) {
+            logger.info("{} : {} partition(s) mensuelle(s) créée(s)", table, creees);
+        }
+    }
+
+    /**
+     * Archiver les partitions entièrement antérieures au premier jour du mois, il y a horizon mois
+     */
+    private void archiver(String table, int horizon) {
+        LocalDate avant = LocalDate.now().withDayOfMonth(1).minusMonths(horizon);
+        Integer archivees = jdbcTemplate.queryForObject("SELECT archiver_partitions(?, ?)",
+                Integer.class, table, avant.atStartOfDay());
+        if (archivees != null && archivees > 0) {
+            logger.info("{} : {} partition(s) antérieure(s) au {} déplacée(s) vers {}_archive",
+                    table, archivees, avant, table);
+        }
+    }
+}
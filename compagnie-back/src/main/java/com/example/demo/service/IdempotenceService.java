@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Réponses des requêtes d'écriture porteuses d'un en-tête Idempotency-Key
+ * Une réponse terminée est rejouée sans repasser par l'écriture ; un doublon concurrent attend
+ * la requête originale en cours. Magasin borné en taille, entrées expirées après une durée fixe.
+ */
+@Component
+public class IdempotenceService {
+
+    @Value("${signalement.idempotence.taille-max:10000}")
+    private int tailleMax;
+
+    @Value("${signalement.idempotence.duree-minutes:1440}")
+    private long dureeMinutes;
+
+    @Value("${signalement.idempotence.attente-secondes:30}")
+    private long attenteSecondes;
+
+    private final Map<String, Entree> entrees = new ConcurrentHashMap<>();
+
+    /**
+     * Résultat d'une exécution (rejoue = réponse mémorisée d'une requête précédente)
+     */
+    public record Resultat<T>(T valeur, boolean rejoue) {
+    }
+
+    private static final class Entree {
+        final Object requete;
+        final CompletableFuture<Object> reponse = new CompletableFuture<>();
+        // Requête en cours : jamais expirée
+        volatile long expireA = Long.MAX_VALUE;
+
+        Entree(Object requete) {
+            this.requete = requete;
+        }
+
+        boolean estExpiree(long maintenant) {
+            return maintenant >= expireA;
+        }
+    }
+
+    /**
+     * Exécuter l'action une seule fois par clé (sans clé : exécution directe)
+     * La requête doit être identique d'un envoi à l'autre (equals), sinon IllegalArgumentException.
+     * Un échec n'est pas mémorisé : le prochain envoi de la même clé exécute à nouveau l'action.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Resultat<T> executer(String cle, Object requete, Supplier<T> action) {
+        if (cle == null || cle.isBlank()) {
+            return new Resultat<>(action.get(), false);
+        }
+        if (cle.length() > 255) {
+            throw new IllegalArgumentException("Idempotency-Key trop longue");
+        }
+
+        while (true) {
+            long maintenant = System.currentTimeMillis();
+            Entree nouvelle = new Entree(requete);
+            Entree entree = entrees.compute(cle, (k, e) -> e == null || e.estExpiree(maintenant) ? nouvelle : e);
+
+            if (entree == nouvelle) {
+                limiterTaille();
+                return new Resultat<>(executerOriginal(cle, nouvelle, action), false);
+            }
+
+            if (!Objects.equals(entree.requete, requete)) {
+                throw new IllegalArgumentException("Idempotency-Key déjà utilisée pour une autre requête");
+            }
+            try {
+                return new Resultat<>((T) entree.reponse.get(attenteSecondes, TimeUnit.SECONDS), true);
+            } catch (ExecutionException | CancellationException e) {
+                // L'original a échoué et a libéré la clé : exécuter cette requête à sa place
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Requête originale toujours en cours", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Attente de la requête originale interrompue", e);
+            }
+        }
+    }
+
+    private <T> T executerOriginal(String cle, Entree entree, Supplier<T> action) {
+        try {
+            T valeur = action.get();
+            entree.expireA = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(dureeMinutes);
+            entree.reponse.complete(valeur);
+            return valeur;
+        } catch (RuntimeException | Error e) {
+            entrees.remove(cle, entree);
+            entree.reponse.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Au-delà de la taille maximale : retirer les entrées expirées puis les plus anciennes terminées
+     */
+    private synchronized void limiterTaille() {
+        if (entrees.size() <= tailleMax) {
+            return;
+        }
+        long maintenant = System.currentTimeMillis();
+        entrees.values().removeIf(e -> e.estExpiree(maintenant));
+
+        int excedent = entrees.size() - tailleMax * 9 / 10;
+        if (excedent > 0) {
+            entrees.entrySet().stream()
+                    .filter(e -> e.getValue().reponse.isDone())
+                    .sorted(Comparator.comparingLong(e -> e.getValue().expireA))
+                    .limit(excedent)
+                    .toList()
+                    .forEach(e -> entrees.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    public int taille() {
+        return entrees.size();
+    }
+}
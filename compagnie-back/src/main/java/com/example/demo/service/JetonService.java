@@ -0,0 +1,230 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.UtilisateurResponse;
+import com.example.demo.event.CompteEtatEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jetons d'accès et de rafraîchissement signés HMAC-SHA256 (format JWT compact, auth.jeton.*)
+ * Le jeton d'accès porte l'identifiant, les rôles et l'état : sa vérification ne lit pas la base.
+ * Révocation en mémoire par utilisateur, après commit du blocage / déblocage : chaque révocation
+ * attribue à l'utilisateur une version strictement croissante (horodatage), les jetons émis avec
+ * une version antérieure sont refusés. Un jeton porte la marque prise avant la lecture de l'état
+ * du compte : une révocation entre cette lecture et l'émission le rend donc invalide.
+ */
+@Service
+public class JetonService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JetonService.class);
+
+    public static final String ACCES = "access";
+    public static final String RAFRAICHISSEMENT = "refresh";
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    // En-tête fixe : un jeton annonçant un autre algorithme est refusé tel quel
+    private static final String ENTETE = BASE64_URL.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Base64, au moins 32 octets ; vide : clé aléatoire (jetons invalidés au redémarrage)
+    @Value("${auth.jeton.secret:}")
+    private String secret;
+
+    @Value("${auth.jeton.duree-acces-minutes:15}")
+    private long dureeAccesMinutes;
+
+    @Value("${auth.jeton.duree-rafraichissement-jours:7}")
+    private long dureeRafraichissementJours;
+
+    private SecretKeySpec cle;
+
+    // Mac n'est pas thread-safe : une instance par thread
+    private ThreadLocal<Mac> macs;
+
+    // id_utilisateur → version de révocation courante
+    private final Map<UUID, Revocation> revocations = new ConcurrentHashMap<>();
+
+    // Dernière version attribuée, tous utilisateurs confondus (jamais réutilisée, même après purge)
+    private final AtomicLong derniereVersion = new AtomicLong();
+
+    /**
+     * Jetons émis à la connexion
+     */
+    public record Jetons(String acces, String rafraichissement, long dureeAccesSecondes) {
+    }
+
+    /**
+     * Contenu d'un jeton dont la signature, l'expiration et la version ont été vérifiées
+     */
+    public record JetonVerifie(UUID idUtilisateur, List<String> roles, String etat, String type, long expiration) {
+    }
+
+    private record Revocation(long version, Instant date) {
+    }
+
+    @PostConstruct
+    void demarrer() {
+        byte[] octets;
+        if (secret == null || secret.isBlank()) {
+            octets = new byte[32];
+            new SecureRandom().nextBytes(octets);
+            logger.warn("auth.jeton.secret non défini : clé aléatoire, jetons invalidés au redémarrage " +
+                    "et non partagés entre instances");
+        } else {
+            octets = Base64.getDecoder().decode(secret.trim());
+            if (octets.length < 32) {
+                throw new IllegalStateException("auth.jeton.secret doit contenir au moins 32 octets (Base64)");
+            }
+        }
+        cle = new SecretKeySpec(octets, "HmacSHA256");
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(cle);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 indisponible", e);
+            }
+        });
+    }
+
+    /**
+     * Marque à prendre avant de lire l'état du compte, puis à passer à emettre
+     */
+    public long marque() {
+        return derniereVersion.get();
+    }
+
+    public Jetons emettre(UtilisateurResponse utilisateur, long marque) {
+        Instant maintenant = Instant.now();
+        long dureeAcces = Duration.ofMinutes(dureeAccesMinutes).toSeconds();
+        String acces = signer(utilisateur, ACCES, marque, maintenant, dureeAcces);
+        String rafraichissement = signer(utilisateur, RAFRAICHISSEMENT, marque, maintenant,
+                Duration.ofDays(dureeRafraichissementJours).toSeconds());
+        return new Jetons(acces, rafraichissement, dureeAcces);
+    }
+
+    /**
+     * Vérifier un jeton du type attendu ; vide si signature, format, type, expiration ou version invalide
+     */
+    public Optional<JetonVerifie> verifier(String jeton, String typeAttendu) {
+        if (jeton == null) {
+            return Optional.empty();
+        }
+        int premierPoint = jeton.indexOf('.');
+        int secondPoint = jeton.lastIndexOf('.');
+        if (premierPoint != ENTETE.length() || secondPoint == premierPoint || !jeton.startsWith(ENTETE)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] attendue = macs.get().doFinal(jeton.substring(0, secondPoint).getBytes(StandardCharsets.US_ASCII));
+            byte[] recue = BASE64_URL_DECODER.decode(jeton.substring(secondPoint + 1));
+            if (!MessageDigest.isEqual(attendue, recue)) {
+                return Optional.empty();
+            }
+
+            JsonNode contenu = objectMapper.readTree(BASE64_URL_DECODER.decode(jeton.substring(premierPoint + 1, secondPoint)));
+            if (!typeAttendu.equals(contenu.path("typ").asText())) {
+                return Optional.empty();
+            }
+            long expiration = contenu.path("exp").asLong();
+            if (expiration <= Instant.now().getEpochSecond()) {
+                return Optional.empty();
+            }
+            UUID idUtilisateur = UUID.fromString(contenu.path("sub").asText());
+            if (contenu.path("ver").asLong() < versionCourante(idUtilisateur)) {
+                return Optional.empty();
+            }
+
+            List<String> roles = new ArrayList<>();
+            contenu.path("roles").forEach(role -> roles.add(role.asText()));
+            return Optional.of(new JetonVerifie(idUtilisateur, roles, contenu.path("etat").asText(null),
+                    typeAttendu, expiration));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Refuser tous les jetons déjà émis pour cet utilisateur (blocage, déblocage)
+     */
+    public void revoquer(UUID idUtilisateur) {
+        long version = derniereVersion.accumulateAndGet(System.currentTimeMillis(),
+                (precedente, maintenant) -> Math.max(precedente + 1, maintenant));
+        revocations.put(idUtilisateur, new Revocation(version, Instant.now()));
+    }
+
+    /**
+     * Blocage ou déblocage validé : jetons antérieurs refusés (pas avant le commit, sinon une
+     * connexion lisant encore l'ancien état obtiendrait un jeton à jour)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCompteEtatEvent(CompteEtatEvent event) {
+        revoquer(event.getIdUtilisateur());
+    }
+
+    /**
+     * Oublier les révocations plus anciennes que la durée de vie d'un jeton de rafraîchissement :
+     * tous les jetons antérieurs ont expiré, les suivants restent valides (version > 0)
+     */
+    @Scheduled(fixedDelayString = "${auth.jeton.purge-revocations-ms:3600000}")
+    public void purgerRevocations() {
+        Instant limite = Instant.now().minus(Duration.ofDays(dureeRafraichissementJours));
+        revocations.values().removeIf(revocation -> revocation.date().isBefore(limite));
+    }
+
+    private long versionCourante(UUID idUtilisateur) {
+        Revocation revocation = revocations.get(idUtilisateur);
+        return revocation != null ? revocation.version() : 0;
+    }
+
+    private String signer(UtilisateurResponse utilisateur, String type, long marque, Instant maintenant,
+                          long dureeSecondes) {
+        ObjectNode contenu = objectMapper.createObjectNode();
+        contenu.put("sub", utilisateur.getIdUtilisateur().toString());
+        contenu.put("typ", type);
+        contenu.putPOJO("roles", utilisateur.getRoles() != null ? utilisateur.getRoles() : List.of());
+        contenu.put("etat", utilisateur.getEtat());
+        contenu.put("ver", marque);
+        contenu.put("iat", maintenant.getEpochSecond());
+        contenu.put("exp", maintenant.getEpochSecond() + dureeSecondes);
+        try {
+            String corps = ENTETE + "." + BASE64_URL.encodeToString(objectMapper.writeValueAsBytes(contenu));
+            byte[] signature = macs.get().doFinal(corps.getBytes(StandardCharsets.US_ASCII));
+            return corps + "." + BASE64_URL.encodeToString(signature);
+        } catch (IOException e) {
+            throw new IllegalStateException("Jeton non sérialisable", e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.TentativeConnexion;
+import com.example.demo.repository.TentativeConnexionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Journal des tentatives de connexion (tentative_connexion, audit uniquement)
+ * Mode asynchrone (auth.tentatives.asynchrone) : la connexion dépose la tentative dans une file bornée
+ * sans verrou ; un écrivain unique l'écrit par lots multi-lignes dès taille-lot tentatives ou au plus tard
+ * après intervalle-ms. Le blocage de compte n'en dépend pas (compteur utilisateur.echecs_consecutifs).
+ * File pleine : tentative ignorée (comptée) ou écrite immédiatement, selon auth.tentatives.si-pleine.
+ * Métriques : auth.tentatives.file (profondeur), .ecrites / .perdues (compteurs), .lot (durée)
+ */
+@Service
+public class JournalConnexionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalConnexionService.class);
+
+    private static final int TENTATIVES_LOT = 3;
+
+    private static final String INSERTION = "INSERT INTO tentative_connexion (id_utilisateur, succes, date_tentative) " +
+            "VALUES (?, ?, ?)";
+
+    @Autowired
+    private TentativeConnexionRepository tentativeConnexionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.tentatives.asynchrone:true}")
+    private boolean asynchrone;
+
+    @Value("${auth.tentatives.capacite:50000}")
+    private int capacite;
+
+    @Value("${auth.tentatives.taille-lot:500}")
+    private int tailleLot;
+
+    @Value("${auth.tentatives.intervalle-ms:200}")
+    private long intervalleMs;
+
+    // ignorer : la tentative est perdue ; synchrone : écrite tout de suite, dans la transaction de l'appelant
+    @Value("${auth.tentatives.si-pleine:ignorer}")
+    private String siPleine;
+
+    @Value("${auth.tentatives.arret-secondes:10}")
+    private long arretSecondes;
+
+    private final Queue<Tentative> file = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger taille = new AtomicInteger();
+
+    private Thread ecrivain;
+    private volatile boolean arret = false;
+
+    private Counter ecrites;
+    private Counter perdues;
+    private Timer dureeLot;
+
+    private record Tentative(UUID idUtilisateur, boolean succes, LocalDateTime dateTentative) {
+    }
+
+    @PostConstruct
+    void demarrer() {
+        if (!asynchrone) {
+            return;
+        }
+        Gauge.builder("auth.tentatives.file", taille, AtomicInteger::get)
+                .description("Tentatives de connexion en attente d'écriture").register(meterRegistry);
+        ecrites = Counter.builder("auth.tentatives.ecrites")
+                .description("Tentatives de connexion écrites par lot").register(meterRegistry);
+        perdues = Counter.builder("auth.tentatives.perdues")
+                .description("Tentatives de connexion non journalisées (file pleine ou échec d'écriture)")
+                .register(meterRegistry);
+        dureeLot = Timer.builder("auth.tentatives.lot")
+                .description("Écriture d'un lot de tentatives").register(meterRegistry);
+
+        ecrivain = new Thread(this::vider, "journal-connexions");
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+        logger.info("Journal des connexions asynchrone (capacité {}, lots de {}, toutes les {} ms, file pleine : {})",
+                capacite, tailleLot, intervalleMs, siPleine);
+    }
+
+    /**
+     * Journaliser une tentative (idUtilisateur null : email inconnu)
+     */
+    public void enregistrer(UUID idUtilisateur, boolean succes) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        if (!asynchrone || arret) {
+            ecrireImmediatement(idUtilisateur, succes, maintenant);
+            return;
+        }
+        int position = taille.incrementAndGet();
+        if (position > capacite) {
+            taille.decrementAndGet();
+            if ("synchrone".equalsIgnoreCase(siPleine)) {
+                ecrireImmediatement(idUtilisateur, succes, maintenant);
+            } else {
+                perdues.increment();
+            }
+            return;
+        }
+        file.offer(new Tentative(idUtilisateur, succes, maintenant));
+        if (position == tailleLot) {
+            LockSupport.unpark(ecrivain); // lot complet : inutile d'attendre l'intervalle
+        }
+    }
+
+    public int profondeur() {
+        return taille.get();
+    }
+
+    private void ecrireImmediatement(UUID idUtilisateur, boolean succes, LocalDateTime dateTentative) {
+        TentativeConnexion tentative = new TentativeConnexion();
+        tentative.setIdUtilisateur(idUtilisateur);
+        tentative.setSucces(succes);
+        tentative.setDateTentative(dateTentative);
+        tentativeConnexionRepository.save(tentative);
+    }
+
+    /**
+     * Boucle de l'écrivain : lots complets dès qu'ils sont prêts, le reste à chaque échéance d'intervalle
+     */
+    private void vider() {
+        long intervalleNanos = TimeUnit.MILLISECONDS.toNanos(intervalleMs);
+        long echeance = System.nanoTime() + intervalleNanos;
+        while (!arret || taille.get() > 0) {
+            long attente = echeance - System.nanoTime();
+            if (!arret && taille.get() < tailleLot && attente > 0) {
+                LockSupport.parkNanos(this, attente);
+                continue;
+            }
+            boolean toutEcrire = arret || attente <= 0;
+            try {
+                while (taille.get() >= tailleLot || (toutEcrire && taille.get() > 0)) {
+                    List<Tentative> lot = prendre();
+                    if (lot.isEmpty()) {
+                        break; // réservée mais pas encore déposée
+                    }
+                    ecrireLot(lot);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Écrivain du journal des connexions interrompu, {} tentatives non écrites", taille.get());
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Erreur inattendue de l'écrivain du journal des connexions: {}", e.getMessage(), e);
+            }
+            if (toutEcrire) {
+                echeance = System.nanoTime() + intervalleNanos;
+            }
+        }
+    }
+
+    private List<Tentative> prendre() {
+        List<Tentative> lot = new ArrayList<>(Math.min(tailleLot, Math.max(taille.get(), 1)));
+        Tentative tentative;
+        while (lot.size() < tailleLot && (tentative = file.poll()) != null) {
+            taille.decrementAndGet();
+            lot.add(tentative);
+        }
+        return lot;
+    }
+
+    /**
+     * Un lot par transaction ; INSERT multi-lignes grâce à reWriteBatchedInserts
+     */
+    private void ecrireLot(List<Tentative> lot) throws InterruptedException {
+        List<Object[]> lignes = new ArrayList<>(lot.size());
+        for (Tentative tentative : lot) {
+            lignes.add(new Object[]{tentative.idUtilisateur(), tentative.succes(), tentative.dateTentative()});
+        }
+        for (int essai = 1; essai <= TENTATIVES_LOT; essai++) {
+            try {
+                dureeLot.record(() -> transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERTION, lignes)));
+                ecrites.increment(lot.size());
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Écriture d'un lot de {} tentatives en échec (essai {}/{}): {}",
+                        lot.size(), essai, TENTATIVES_LOT, e.getMessage());
+                Thread.sleep(200L * essai);
+            }
+        }
+        perdues.increment(lot.size());
+        logger.error("{} tentatives de connexion non journalisées", lot.size());
+    }
+
+    /**
+     * Arrêt propre : les tentatives suivantes sont écrites directement, la file est vidée (dans la limite d'arret-secondes)
+     */
+    @PreDestroy
+    void arreter() throws InterruptedException {
+        if (ecrivain == null) {
+            return;
+        }
+        arret = true;
+        LockSupport.unpark(ecrivain);
+        ecrivain.join(TimeUnit.SECONDS.toMillis(arretSecondes));
+        if (ecrivain.isAlive()) {
+            logger.error("Journal des connexions non vidé à l'arrêt: {} tentatives perdues", taille.get());
+            ecrivain.interrupt();
+        } else {
+            logger.info("Journal des connexions vidé avant l'arrêt");
+        }
+    }
+}
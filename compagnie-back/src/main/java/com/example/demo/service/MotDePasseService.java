@@ -0,0 +1,183 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hachage et vérification BCrypt sur un pool dédié (auth.bcrypt.*)
+ * Les threads Tomcat attendent le résultat sans calculer : une rafale de connexions occupe au plus
+ * auth.bcrypt.threads cœurs, les autres endpoints gardent le reste. File bornée, refus immédiat
+ * (RejectedExecutionException → 429) quand elle est pleine.
+ * Coût calibré au démarrage pour approcher auth.bcrypt.duree-cible-ms (ou fixé par auth.bcrypt.cout).
+ * Métriques : auth.bcrypt.file (profondeur), .rejets (compteur), .calcul (durée d'un hachage / vérification)
+ */
+@Service
+public class MotDePasseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MotDePasseService.class);
+
+    private static final Pattern COUT_HASH = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 : calibré au démarrage
+    @Value("${auth.bcrypt.cout:0}")
+    private int coutFixe;
+
+    @Value("${auth.bcrypt.duree-cible-ms:250}")
+    private long dureeCibleMs;
+
+    @Value("${auth.bcrypt.cout-min:10}")
+    private int coutMin;
+
+    @Value("${auth.bcrypt.cout-max:14}")
+    private int coutMax;
+
+    // 0 : la moitié des cœurs (au moins 1)
+    @Value("${auth.bcrypt.threads:0}")
+    private int threads;
+
+    @Value("${auth.bcrypt.file:64}")
+    private int capaciteFile;
+
+    @Value("${auth.bcrypt.attente-ms:5000}")
+    private long attenteMs;
+
+    private BCryptPasswordEncoder encoder;
+    private int cout;
+    private ThreadPoolExecutor executeur;
+
+    private Counter rejets;
+    private Timer calcul;
+
+    @PostConstruct
+    void demarrer() {
+        cout = coutFixe > 0 ? coutFixe : calibrer();
+        encoder = new BCryptPasswordEncoder(cout);
+
+        int taillePool = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BlockingQueue<Runnable> file = new ArrayBlockingQueue<>(capaciteFile);
+        AtomicInteger numero = new AtomicInteger();
+        executeur = new ThreadPoolExecutor(taillePool, taillePool, 0L, TimeUnit.MILLISECONDS, file, r -> {
+            Thread thread = new Thread(r, "bcrypt-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.bcrypt.file", file, BlockingQueue::size)
+                .description("Hachages BCrypt en attente").register(meterRegistry);
+        rejets = Counter.builder("auth.bcrypt.rejets")
+                .description("Hachages BCrypt refusés, pool saturé").register(meterRegistry);
+        calcul = Timer.builder("auth.bcrypt.calcul")
+                .description("Durée d'un hachage ou d'une vérification BCrypt").register(meterRegistry);
+
+        logger.info("BCrypt : coût {}, {} thread(s), file de {}", cout, taillePool, capaciteFile);
+    }
+
+    @PreDestroy
+    void arreter() {
+        if (executeur != null) {
+            executeur.shutdownNow();
+        }
+    }
+
+    /**
+     * Coût le plus élevé (entre cout-min et cout-max) dont la durée mesurée reste sous la cible ;
+     * chaque incrément double la durée
+     */
+    private int calibrer() {
+        int candidat = coutMin;
+        new BCryptPasswordEncoder(candidat).encode("calibrage"); // chauffe
+        long debut = System.nanoTime();
+        new BCryptPasswordEncoder(candidat).encode("calibrage");
+        double dureeMs = (System.nanoTime() - debut) / 1_000_000.0;
+        while (candidat < coutMax && dureeMs * 2 <= dureeCibleMs) {
+            candidat++;
+            dureeMs *= 2;
+        }
+        logger.info("BCrypt calibré : coût {} (~{} ms, cible {} ms)", candidat, Math.round(dureeMs), dureeCibleMs);
+        return candidat;
+    }
+
+    public int getCout() {
+        return cout;
+    }
+
+    /**
+     * Hacher un mot de passe au coût courant
+     */
+    public String hacher(String motDePasse) {
+        return executer(() -> encoder.encode(motDePasse));
+    }
+
+    /**
+     * Vérifier un mot de passe contre son hash (quel que soit le coût du hash)
+     */
+    public boolean verifier(String motDePasse, String hash) {
+        return executer(() -> encoder.matches(motDePasse, hash));
+    }
+
+    /**
+     * Hash calculé à un autre coût que le coût courant (à re-hacher après une connexion réussie)
+     */
+    public boolean doitRehacher(String hash) {
+        Integer coutHash = coutDe(hash);
+        return coutHash != null && coutHash != cout;
+    }
+
+    static Integer coutDe(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        Matcher matcher = COUT_HASH.matcher(hash);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    private <T> T executer(Callable<T> tache) {
+        Future<T> future;
+        try {
+            future = executeur.submit(() -> calcul.recordCallable(tache));
+        } catch (RejectedExecutionException e) {
+            rejets.increment();
+            throw new RejectedExecutionException("Pool BCrypt saturé");
+        }
+        try {
+            return future.get(attenteMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejets.increment();
+            throw new RejectedExecutionException("Pool BCrypt saturé (attente dépassée)");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Hachage interrompu");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.EtatCompte;
+import com.example.demo.entite.Role;
+import com.example.demo.entite.StatutSignalement;
+import com.example.demo.repository.EtatCompteRepository;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.StatutSignalementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registre en mémoire des tables de référence (statut_signalement, etat_compte, role)
+ * Chargé une fois puis relu uniquement via {@link #recharger()} (hook d'administration)
+ */
+@Component
+public class ReferentielRegistry implements ChargementDemarrage {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferentielRegistry.class);
+
+    @Autowired
+    private StatutSignalementRepository statutSignalementRepository;
+
+    @Autowired
+    private EtatCompteRepository etatCompteRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    // Instantanés immuables, remplacés en bloc au rechargement
+    private volatile Referentiel statuts;
+    private volatile Referentiel etats;
+    private volatile Referentiel roles;
+
+    /**
+     * Correspondances code ↔ id d'une table de référence
+     */
+    public static final class Referentiel {
+
+        private final String libelle;
+        private final Map<String, Long> idsParCode;
+        private final Map<Long, String> codesParId;
+
+        Referentiel(String libelle, Map<String, Long> idsParCode) {
+            this.libelle = libelle;
+            this.idsParCode = Map.copyOf(idsParCode);
+            Map<Long, String> inverse = new HashMap<>();
+            idsParCode.forEach((code, id) -> inverse.put(id, code));
+            this.codesParId = Map.copyOf(inverse);
+        }
+
+        /**
+         * Id du code, ou null si le code est inconnu
+         */
+        public Long getId(String code) {
+            return code != null ? idsParCode.get(code) : null;
+        }
+
+        /**
+         * Id du code, exception si le code est inconnu
+         */
+        public Long getIdObligatoire(String code) {
+            Long id = getId(code);
+            if (id == null) {
+                throw new RuntimeException(libelle + " " + code + " non trouvé");
+            }
+            return id;
+        }
+
+        /**
+         * Code de l'id, ou null si l'id est inconnu
+         */
+        public String getCode(Long id) {
+            return id != null ? codesParId.get(id) : null;
+        }
+
+        public boolean contient(String code) {
+            return getId(code) != null;
+        }
+
+        public int taille() {
+            return idsParCode.size();
+        }
+    }
+
+    @Override
+    public String nomChargement() {
+        return "Référentiels";
+    }
+
+    @Override
+    public void charger() {
+        recharger();
+    }
+
+    /**
+     * Relire les trois tables de référence depuis la base
+     */
+    public synchronized void recharger() {
+        Map<String, Long> codesStatut = new HashMap<>();
+        for (StatutSignalement statut : statutSignalementRepository.findAll()) {
+            codesStatut.put(statut.getCode(), statut.getIdStatut());
+        }
+        Map<String, Long> codesEtat = new HashMap<>();
+        for (EtatCompte etat : etatCompteRepository.findAll()) {
+            codesEtat.put(etat.getCode(), etat.getIdEtat());
+        }
+        Map<String, Long> codesRole = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            codesRole.put(role.getCode(), role.getIdRole());
+        }
+
+        statuts = new Referentiel("Statut", codesStatut);
+        etats = new Referentiel("État", codesEtat);
+        roles = new Referentiel("Rôle", codesRole);
+        logger.info("Référentiels chargés: {} statuts, {} états, {} rôles",
+                statuts.taille(), etats.taille(), roles.taille());
+    }
+
+    public Referentiel statuts() {
+        initialiserSiNecessaire();
+        return statuts;
+    }
+
+    public Referentiel etats() {
+        initialiserSiNecessaire();
+        return etats;
+    }
+
+    public Referentiel roles() {
+        initialiserSiNecessaire();
+        return roles;
+    }
+
+    private void initialiserSiNecessaire() {
+        if (roles == null) {
+            synchronized (this) {
+                if (roles == null) {
+                    recharger();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.ClusterResponse;
+import com.example.demo.entite.Signalement;
+import com.example.demo.event.SignalementEvent;
+import com.example.demo.event.SignalementsStatutEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regroupement des signalements par tuile de carte (schéma XYZ) pour un niveau de zoom.
+ * Chaque tuile est calculée depuis l'index spatial puis mise en cache jusqu'à ce qu'un
+ * SignalementEvent touche cette tuile.
+ */
+@Service
+public class SignalementClusterService {
+
+    // Tuile vide mise en cache (nombre = 0), jamais renvoyée au client
+    private static final ClusterResponse TUILE_VIDE = new ClusterResponse();
+
+    // Latitude maximale de la projection Web Mercator
+    private static final double LATITUDE_MAX = 85.05112878;
+
+    @Autowired
+    private SignalementSpatialIndex signalementSpatialIndex;
+
+    @Value("${signalement.cluster.zoom-max:18}")
+    private int zoomMax;
+
+    @Value("${signalement.cluster.tuiles-max-par-requete:4096}")
+    private int tuilesMaxParRequete;
+
+    @Value("${signalement.cluster.taille-cache:100000}")
+    private int tailleCache;
+
+    private final Map<Long, ClusterResponse> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Clusters (un par tuile non vide) couvrant la zone au niveau de zoom demandé
+     */
+    public List<ClusterResponse> getClusters(int zoom, double minLat, double minLng, double maxLat, double maxLng) {
+        if (zoom < 0 || zoom > zoomMax) {
+            throw new IllegalArgumentException("Zoom invalide (0 à " + zoomMax + ")");
+        }
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Zone invalide: min doit être inférieur ou égal à max");
+        }
+
+        int minX = tuileX(minLng, zoom);
+        int maxX = tuileX(maxLng, zoom);
+        // L'axe Y des tuiles est orienté vers le sud
+        int minY = tuileY(maxLat, zoom);
+        int maxY = tuileY(minLat, zoom);
+
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > tuilesMaxParRequete) {
+            throw new IllegalArgumentException("Trop de tuiles pour ce zoom, augmenter le niveau de zoom");
+        }
+
+        if (cache.size() > tailleCache) {
+            cache.clear();
+        }
+
+        List<ClusterResponse> clusters = new ArrayList<>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                final int tx = x;
+                final int ty = y;
+                ClusterResponse cluster = cache.computeIfAbsent(cle(zoom, x, y), k -> calculerTuile(zoom, tx, ty));
+                if (cluster.getNombre() > 0) {
+                    clusters.add(cluster);
+                }
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Invalider, à chaque niveau de zoom, la tuile contenant le signalement modifié.
+     * Exécuté après la mise à jour de l'index spatial (@Order).
+     */
+    @Order(10)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSignalementEvent(SignalementEvent event) {
+        Signalement signalement = event.getSignalement();
+        if (signalement.getLatitude() == null || signalement.getLongitude() == null) {
+            cache.clear();
+            return;
+        }
+        invalider(signalement.getLatitude(), signalement.getLongitude());
+    }
+
+    /**
+     * Changement de statut en masse : invalider les tuiles des positions concernées
+     */
+    @Order(10)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSignalementsStatutEvent(SignalementsStatutEvent event) {
+        for (UUID idSignalement : event.getIdsSignalement()) {
+            SignalementSpatialIndex.PointSignalement point = signalementSpatialIndex.trouver(idSignalement);
+            if (point == null) {
+                cache.clear();
+                return;
+            }
+            invalider(point.latitude(), point.longitude());
+        }
+    }
+
+    /**
+     * Invalider les tuiles contenant une position, pour tous les niveaux de zoom
+     */
+    public void invalider(double latitude, double longitude) {
+        for (int zoom = 0; zoom <= zoomMax; zoom++) {
+            cache.remove(cle(zoom, tuileX(longitude, zoom), tuileY(latitude, zoom)));
+        }
+    }
+
+    public void invaliderTout() {
+        cache.clear();
+    }
+
+    private ClusterResponse calculerTuile(int zoom, int x, int y) {
+        double nord = latitudeTuile(y, zoom);
+        double sud = latitudeTuile(y + 1, zoom);
+        double ouest = longitudeTuile(x, zoom);
+        double est = longitudeTuile(x + 1, zoom);
+
+        List<SignalementSpatialIndex.PointSignalement> points = signalementSpatialIndex.rechercher(sud, ouest, nord, est);
+
+        long nombre = 0;
+        double sommeLat = 0;
+        double sommeLng = 0;
+        Map<String, Long> statuts = new TreeMap<>();
+        for (SignalementSpatialIndex.PointSignalement point : points) {
+            // Les bornes sud/est appartiennent à la tuile voisine
+            if (tuileX(point.longitude(), zoom) != x || tuileY(point.latitude(), zoom) != y) {
+                continue;
+            }
+            nombre++;
+            sommeLat += point.latitude();
+            sommeLng += point.longitude();
+            String statut = point.statut() != null ? point.statut() : "INCONNU";
+            statuts.merge(statut, 1L, Long::sum);
+        }
+
+        if (nombre == 0) {
+            return TUILE_VIDE;
+        }
+        return new ClusterResponse(zoom, x, y, nombre, sommeLat / nombre, sommeLng / nombre, statuts);
+    }
+
+    private int tuileX(double longitude, int zoom) {
+        int n = 1 << zoom;
+        int x = (int) Math.floor((longitude + 180.0) / 360.0 * n);
+        return Math.max(0, Math.min(n - 1, x));
+    }
+
+    private int tuileY(double latitude, int zoom) {
+        int n = 1 << zoom;
+        double lat = Math.toRadians(Math.max(-LATITUDE_MAX, Math.min(LATITUDE_MAX, latitude)));
+        int y = (int) Math.floor((1 - Math.log(Math.tan(lat) + 1 / Math.cos(lat)) / Math.PI) / 2 * n);
+        return Math.max(0, Math.min(n - 1, y));
+    }
+
+    private double longitudeTuile(int x, int zoom) {
+        return x / (double) (1 << zoom) * 360.0 - 180.0;
+    }
+
+    private double latitudeTuile(int y, int zoom) {
+        double n = Math.PI - 2.0 * Math.PI * y / (1 << zoom);
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    private long cle(int zoom, int x, int y) {
+        return ((long) zoom << 58) | ((long) x << 29) | y;
+    }
+}
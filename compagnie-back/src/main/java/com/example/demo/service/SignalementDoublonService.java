@@ -0,0 +1,45 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Détection des doublons par proximité (index spatial en mémoire, rayon signalement.doublons.rayon-metres)
+ * Un nouveau signalement proche d'un signalement ouvert est créé mais marqué id_doublon_de.
+ */
+@Service
+public class SignalementDoublonService {
+
+    @Autowired
+    private SignalementSpatialIndex signalementSpatialIndex;
+
+    @Value("${signalement.doublons.active:true}")
+    private boolean active;
+
+    @Value("${signalement.doublons.rayon-metres:25}")
+    private double rayonMetres;
+
+    /**
+     * Signalements ouverts (non TERMINE) dans le rayon, du plus proche au plus éloigné
+     */
+    public List<SignalementSpatialIndex.Voisin> candidats(double latitude, double longitude) {
+        if (!active) {
+            return List.of();
+        }
+        return signalementSpatialIndex.voisins(latitude, longitude, rayonMetres).stream()
+                .filter(voisin -> !"TERMINE".equals(voisin.point().statut()))
+                .toList();
+    }
+
+    /**
+     * Doublon probable d'un nouveau signalement : le signalement ouvert le plus proche, ou null
+     */
+    public UUID doublonProbable(double latitude, double longitude) {
+        List<SignalementSpatialIndex.Voisin> candidats = candidats(latitude, longitude);
+        return candidats.isEmpty() ? null : candidats.get(0).point().idSignalement();
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.SignalementRequest;
+import com.example.demo.DTO.SignalementResponse;
+import com.example.demo.entite.Signalement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File d'ingestion des créations de signalement (mode optionnel, signalement.ingestion.active)
+ * POST /api/signalements valide, attribue l'identifiant et met en file ; un écrivain unique vide la file
+ * par lots, chacun dans une transaction : une seule connexion occupée quel que soit le débit entrant.
+ * Métriques : signalement.ingestion.file (profondeur), .ecrits / .echecs / .rejets (compteurs), .lot (durée)
+ */
+@Service
+public class SignalementIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignalementIngestionService.class);
+
+    private static final int TENTATIVES_LOT = 3;
+
+    @Autowired
+    private SignalementService signalementService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signalement.ingestion.active:false}")
+    private boolean active;
+
+    @Value("${signalement.ingestion.capacite:10000}")
+    private int capacite;
+
+    @Value("${signalement.ingestion.taille-lot:200}")
+    private int tailleLot;
+
+    @Value("${signalement.ingestion.arret-secondes:30}")
+    private long arretSecondes;
+
+    private BlockingQueue<EnAttente> file;
+    private ExecutorService ecrivain;
+    private volatile boolean arret = false;
+
+    private Counter ecrits;
+    private Counter echecs;
+    private Counter rejets;
+    private Timer dureeLot;
+
+    /**
+     * Signalement accepté, pas encore écrit (valeurs immuables : l'entité est reconstruite à chaque tentative,
+     * avec le doublon probable annoncé dans la réponse 202)
+     */
+    private record EnAttente(UUID idSignalement, SignalementRequest request, LocalDateTime dateCreation,
+                             UUID idDoublonDe) {
+    }
+
+    @PostConstruct
+    void demarrer() {
+        if (!active) {
+            return;
+        }
+        file = new ArrayBlockingQueue<>(capacite);
+        Gauge.builder("signalement.ingestion.file", file, BlockingQueue::size)
+                .description("Signalements en attente d'écriture").register(meterRegistry);
+        ecrits = Counter.builder("signalement.ingestion.ecrits")
+                .description("Signalements écrits depuis la file").register(meterRegistry);
+        echecs = Counter.builder("signalement.ingestion.echecs")
+                .description("Signalements perdus après échec d'écriture").register(meterRegistry);
+        rejets = Counter.builder("signalement.ingestion.rejets")
+                .description("Signalements refusés, file pleine").register(meterRegistry);
+        dureeLot = Timer.builder("signalement.ingestion.lot")
+                .description("Écriture d'un lot de la file").register(meterRegistry);
+
+        ecrivain = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ingestion-signalements");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ecrivain.submit(this::vider);
+        logger.info("Ingestion différée des signalements active (capacité {}, lots de {})", capacite, tailleLot);
+    }
+
+    public boolean estActive() {
+        return active;
+    }
+
+    /**
+     * Mettre en file un signalement ; réponse immédiate avec l'identifiant attribué
+     * RejectedExecutionException si la file est pleine (le client doit réessayer plus tard)
+     */
+    public SignalementResponse soumettre(SignalementRequest request) {
+        signalementService.validerPosition(request);
+        if (arret) {
+            throw new RejectedExecutionException("Arrêt en cours");
+        }
+        EnAttente enAttente = new EnAttente(UUID.randomUUID(), request, LocalDateTime.now(),
+                signalementService.doublonProbable(request));
+        if (!file.offer(enAttente)) {
+            rejets.increment();
+            throw new RejectedExecutionException("File d'ingestion pleine");
+        }
+        return signalementService.reponseInitiale(entite(enAttente));
+    }
+
+    public int profondeur() {
+        return file != null ? file.size() : 0;
+    }
+
+    /**
+     * Boucle de l'écrivain : un lot par transaction, jusqu'à l'arrêt et la file vide
+     */
+    private void vider() {
+        List<EnAttente> lot = new ArrayList<>(tailleLot);
+        while (!arret || !file.isEmpty()) {
+            try {
+                EnAttente premier = file.poll(200, TimeUnit.MILLISECONDS);
+                if (premier == null) {
+                    continue;
+                }
+                lot.add(premier);
+                file.drainTo(lot, tailleLot - 1);
+                ecrireLot(lot);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Écrivain d'ingestion interrompu, {} signalements non écrits", file.size());
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Erreur inattendue de l'écrivain d'ingestion: {}", e.getMessage(), e);
+            } finally {
+                lot.clear();
+            }
+        }
+    }
+
+    private void ecrireLot(List<EnAttente> lot) throws InterruptedException {
+        for (int tentative = 1; tentative <= TENTATIVES_LOT; tentative++) {
+            try {
+                dureeLot.record(() -> signalementService.enregistrerSignalements(entites(lot)));
+                ecrits.increment(lot.size());
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Écriture d'un lot de {} signalements en échec (tentative {}/{}): {}",
+                        lot.size(), tentative, TENTATIVES_LOT, e.getMessage());
+                Thread.sleep(500L * tentative);
+            }
+        }
+
+        // Dernier recours : un signalement par transaction, pour isoler les lignes en erreur
+        for (EnAttente enAttente : lot) {
+            try {
+                signalementService.enregistrerSignalements(List.of(entite(enAttente)));
+                ecrits.increment();
+            } catch (RuntimeException e) {
+                echecs.increment();
+                logger.error("Signalement {} non écrit: {}", enAttente.idSignalement(), e.getMessage());
+            }
+        }
+    }
+
+    private List<Signalement> entites(List<EnAttente> lot) {
+        List<Signalement> signalements = new ArrayList<>(lot.size());
+        for (EnAttente enAttente : lot) {
+            signalements.add(entite(enAttente));
+        }
+        return signalements;
+    }
+
+    private Signalement entite(EnAttente enAttente) {
+        return signalementService.nouveauSignalement(enAttente.idSignalement(), enAttente.request(),
+                enAttente.dateCreation(), enAttente.idDoublonDe());
+    }
+
+    /**
+     * Arrêt propre : plus aucune soumission, la file est écrite jusqu'au bout (dans la limite d'arret-secondes)
+     */
+    @PreDestroy
+    void arreter() throws InterruptedException {
+        if (ecrivain == null) {
+            return;
+        }
+        arret = true;
+        ecrivain.shutdown();
+        if (ecrivain.awaitTermination(arretSecondes, TimeUnit.SECONDS)) {
+            logger.info("File d'ingestion vidée avant l'arrêt");
+        } else {
+            logger.error("File d'ingestion non vidée à l'arrêt: {} signalements perdus", file.size());
+            ecrivain.shutdownNow();
+        }
+    }
+}
@@ -1,24 +1,57 @@
 package com.example.demo.service;
 
+import com.example.demo.DTO.HistoriqueVersionResponse;
+import com.example.demo.DTO.PageCurseurResponse;
 import com.example.demo.DTO.SignalementRequest;
 import com.example.demo.DTO.SignalementResponse;
+import com.example.demo.DTO.TransitionStatutRequest;
+import com.example.demo.DTO.TransitionStatutResponse;
 import com.example.demo.DTO.UpdateSignalementRequest;
 import com.example.demo.entite.*;
 import com.example.demo.event.SignalementEvent;
+import com.example.demo.event.SignalementsStatutEvent;
 import com.example.demo.repository.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SignalementService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SignalementService.class);
+
      @Autowired
     private SignalementRepository signalementRepository;
 
@@ -26,17 +59,50 @@ public class SignalementService {
     private SignalementStatutRepository signalementStatutRepository;
 
     @Autowired
-    private StatutSignalementRepository statutSignalementRepository;
+    private ReferentielRegistry referentielRegistry;
 
     @Autowired
     private SignalementDetailRepository signalementDetailRepository;
 
     @Autowired
-    private EntrepriseRepository entrepriseRepository;
+    private SignalementCourantRepository signalementCourantRepository;
 
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SignalementSpatialIndex signalementSpatialIndex;
+
+    @Autowired
+    private EntrepriseCache entrepriseCache;
+
+    @Autowired
+    private SignalementStatistiquesService signalementStatistiquesService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SignalementDoublonService signalementDoublonService;
+
+    @Value("${signalement.pagination.taille-defaut:100}")
+    private int tailleDefaut;
+
+    @Value("${signalement.pagination.taille-max:1000}")
+    private int tailleMax;
+
+    @Value("${signalement.batch.taille-max:500}")
+    private int tailleMaxLot;
+
+    @Value("${signalement.transition.taille-max:1000}")
+    private int tailleMaxTransition;
+
+    @Value("${signalement.concurrence.tentatives-max:5}")
+    private int tentativesMax;
+
 
     /**
      * Créer un nouveau signalement
@@ -49,29 +115,159 @@ public class SignalementService {
         signalement.setLatitude(request.getLatitude());
         signalement.setLongitude(request.getLongitude());
         signalement.setSource(request.getSource() != null ? request.getSource() : "WEB");
+        signalement.setDescription(normaliserDescription(request.getDescription()));
+        signalement.setIdDoublonDe(doublonProbable(request));
         signalement.setDateCreation(LocalDateTime.now());
         signalementRepository.save(signalement);
 
         // Assigner le statut NOUVEAU par défaut
-        StatutSignalement statutNouveau = statutSignalementRepository.findByCode("NOUVEAU")
-                .orElseThrow(() -> new RuntimeException("Statut NOUVEAU non trouvé"));
+        Long idStatutNouveau = referentielRegistry.statuts().getIdObligatoire("NOUVEAU");
 
         SignalementStatut statut = new SignalementStatut();
         statut.setIdSignalement(signalement.getIdSignalement());
-        statut.setIdStatut(statutNouveau.getIdStatut());
+        statut.setIdStatut(idStatutNouveau);
         statut.setDateDebut(LocalDateTime.now());
         signalementStatutRepository.save(statut);
 
+        // Initialiser la projection de l'état actuel
+        SignalementCourant courant = new SignalementCourant(signalement.getIdSignalement());
+        courant.setIdStatut(idStatutNouveau);
+        courant.setCodeStatut("NOUVEAU");
+        courant.setDateDebutStatut(statut.getDateDebut());
+        courant.setDateModification(statut.getDateDebut());
+        signalementCourantRepository.save(courant);
+        signalementStatistiquesService.enregistrerDelta(null, SignalementStatistiquesService.Contribution.de(courant));
+
+        // Publier événement pour synchronisation Firestore et index spatial
+        eventPublisher.publishEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.CREATED));
+
         return buildSignalementResponse(signalement);
     }
 
+    /**
+     * Créer plusieurs signalements en une transaction (synchronisation mobile)
+     * Les insertions signalement / signalement_statut / signalement_courant partent en batch JDBC
+     */
+    @Transactional
+    public List<SignalementResponse> creerSignalements(List<SignalementRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Liste de signalements vide");
+        }
+        if (requests.size() > tailleMaxLot) {
+            throw new IllegalArgumentException("Au plus " + tailleMaxLot + " signalements par lot");
+        }
+        for (SignalementRequest request : requests) {
+            validerPosition(request);
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<Signalement> signalements = new ArrayList<>(requests.size());
+        for (SignalementRequest request : requests) {
+            signalements.add(nouveauSignalement(UUID.randomUUID(), request, maintenant, doublonProbable(request)));
+        }
+        enregistrerSignalements(signalements);
+
+        List<SignalementResponse> responses = new ArrayList<>(signalements.size());
+        for (Signalement signalement : signalements) {
+            responses.add(reponseInitiale(signalement));
+        }
+        return responses;
+    }
+
+    /**
+     * Insérer en batch des signalements déjà construits (identifiant attribué), avec leur statut NOUVEAU
+     * Utilisé par la création par lot et par l'écrivain de la file d'ingestion
+     */
+    @Transactional
+    public void enregistrerSignalements(List<Signalement> signalements) {
+        Long idStatutNouveau = referentielRegistry.statuts().getIdObligatoire("NOUVEAU");
+        signalementRepository.saveAll(signalements);
+
+        List<SignalementStatut> statuts = new ArrayList<>(signalements.size());
+        List<SignalementCourant> courants = new ArrayList<>(signalements.size());
+        for (Signalement signalement : signalements) {
+            SignalementStatut statut = new SignalementStatut();
+            statut.setIdSignalement(signalement.getIdSignalement());
+            statut.setIdStatut(idStatutNouveau);
+            statut.setDateDebut(signalement.getDateCreation());
+            statuts.add(statut);
+
+            SignalementCourant courant = new SignalementCourant(signalement.getIdSignalement());
+            courant.setIdStatut(idStatutNouveau);
+            courant.setCodeStatut("NOUVEAU");
+            courant.setDateDebutStatut(signalement.getDateCreation());
+            courant.setDateModification(signalement.getDateCreation());
+            courants.add(courant);
+        }
+        signalementStatutRepository.saveAll(statuts);
+        signalementCourantRepository.saveAll(courants);
+
+        for (int i = 0; i < signalements.size(); i++) {
+            signalementStatistiquesService.enregistrerDelta(null, SignalementStatistiquesService.Contribution.de(courants.get(i)));
+            eventPublisher.publishEvent(new SignalementEvent(this, signalements.get(i), SignalementEvent.EventType.CREATED));
+        }
+    }
+
+    void validerPosition(SignalementRequest request) {
+        if (request == null || request.getLatitude() == null || request.getLongitude() == null) {
+            throw new IllegalArgumentException("La latitude et la longitude sont obligatoires");
+        }
+    }
+
+    /**
+     * Doublon probable à la soumission (évalué une fois : la réponse et la ligne écrite concordent)
+     */
+    UUID doublonProbable(SignalementRequest request) {
+        return signalementDoublonService.doublonProbable(request.getLatitude(), request.getLongitude());
+    }
+
+    /**
+     * Signalement à insérer (entité neuve : à reconstruire pour chaque tentative d'insertion)
+     */
+    Signalement nouveauSignalement(UUID idSignalement, SignalementRequest request, LocalDateTime dateCreation,
+                                   UUID idDoublonDe) {
+        Signalement signalement = new Signalement();
+        signalement.setIdSignalement(idSignalement);
+        signalement.setIdUtilisateur(request.getIdUtilisateur());
+        signalement.setLatitude(request.getLatitude());
+        signalement.setLongitude(request.getLongitude());
+        signalement.setSource(request.getSource() != null ? request.getSource() : "WEB");
+        signalement.setDescription(normaliserDescription(request.getDescription()));
+        signalement.setIdDoublonDe(idDoublonDe);
+        signalement.setDateCreation(dateCreation);
+        return signalement;
+    }
+
+    /**
+     * Description vide ou blanche : pas de description
+     */
+    public static String normaliserDescription(String description) {
+        return description == null || description.isBlank() ? null : description.strip();
+    }
+
+    /**
+     * Réponse d'un signalement qui vient d'être créé : état initial connu, pas de relecture en base
+     */
+    SignalementResponse reponseInitiale(Signalement signalement) {
+        SignalementResponse response = new SignalementResponse();
+        response.setIdSignalement(signalement.getIdSignalement());
+        response.setIdUtilisateur(signalement.getIdUtilisateur());
+        response.setLatitude(signalement.getLatitude());
+        response.setLongitude(signalement.getLongitude());
+        response.setSource(signalement.getSource());
+        response.setDateCreation(signalement.getDateCreation());
+        response.setDescription(signalement.getDescription());
+        response.setIdDoublonDe(signalement.getIdDoublonDe());
+        response.setStatut("NOUVEAU");
+        return response;
+    }
+
     /**
      * Récupérer tous les signalements
      */
     public List<SignalementResponse> getAllSignalements() {
-        List<Signalement> signalements = signalementRepository.findAllByOrderByDateCreationDesc();
-        return signalements.stream()
-                .map(this::buildSignalementResponse)
+        return signalementRepository.findAllActuels().stream()
+                .map(this::toSignalementResponse)
                 .collect(Collectors.toList());
     }
 
@@ -79,153 +275,481 @@ public class SignalementService {
      * Récupérer les signalements d'un utilisateur
      */
     public List<SignalementResponse> getSignalementsByUtilisateur(UUID idUtilisateur) {
-        List<Signalement> signalements = signalementRepository.findByIdUtilisateur(idUtilisateur);
-        return signalements.stream()
-                .map(this::buildSignalementResponse)
+        return signalementRepository.findActuelsByUtilisateur(idUtilisateur).stream()
+                .map(this::toSignalementResponse)
                 .collect(Collectors.toList());
     }
 
-        /**
-     * Récupérer un signalement par ID
+    /**
+     * Récupérer une page de signalements (pagination par curseur sur date_creation, id_signalement)
      */
-    public SignalementResponse getSignalementById(UUID id) {
-        Signalement signalement = signalementRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Signalement non trouvé"));
-        return buildSignalementResponse(signalement);
+    public PageCurseurResponse<SignalementResponse> getSignalementsPage(String curseur, Integer taille,
+                                                                        String statut, String source,
+                                                                        UUID idUtilisateur) {
+        int tailleEffective = taille == null || taille <= 0 ? tailleDefaut : Math.min(taille, tailleMax);
+        // Lire une ligne de plus pour savoir s'il existe une page suivante
+        PageRequest limite = PageRequest.of(0, tailleEffective + 1);
+
+        List<SignalementActuelView> lignes;
+        if (curseur == null || curseur.isBlank()) {
+            lignes = signalementRepository.findPremierePageActuels(statut, source,
+                    idUtilisateur == null, idUtilisateur, limite);
+        } else {
+            String[] position = decoderCurseur(curseur);
+            lignes = signalementRepository.findPageActuelsApres(statut, source,
+                    idUtilisateur == null, idUtilisateur,
+                    LocalDateTime.parse(position[0]), UUID.fromString(position[1]), limite);
+        }
+
+        boolean suite = lignes.size() > tailleEffective;
+        List<SignalementActuelView> page = suite ? lignes.subList(0, tailleEffective) : lignes;
+
+        String curseurSuivant = null;
+        if (suite) {
+            SignalementActuelView derniere = page.get(page.size() - 1);
+            curseurSuivant = encoderCurseur(derniere.getDateCreation(), derniere.getIdSignalement());
+        }
+
+        List<SignalementResponse> elements = page.stream()
+                .map(this::toSignalementResponse)
+                .collect(Collectors.toList());
+        return new PageCurseurResponse<>(elements, curseurSuivant, suite);
     }
 
     /**
-     * Mettre à jour un signalement (statut, détails)
+     * Historique fusionné des versions de statut et de détail d'un signalement (plus récent d'abord),
+     * paginé par curseur (date_debut, type, id_version)
      */
-    @Transactional
-    public SignalementResponse updateSignalement(UpdateSignalementRequest request) {
-        Signalement signalement = signalementRepository.findById(request.getIdSignalement())
-                .orElseThrow(() -> new RuntimeException("Signalement non trouvé"));
-
-        // Mettre à jour le statut si fourni
-        if (request.getStatut() != null) {
-            updateStatut(signalement.getIdSignalement(), request.getStatut());
+    public PageCurseurResponse<HistoriqueVersionResponse> getHistorique(UUID idSignalement, String curseur, Integer taille) {
+        if (!signalementRepository.existsById(idSignalement)) {
+            throw new RuntimeException("Signalement non trouvé");
+        }
+        int tailleEffective = taille == null || taille <= 0 ? tailleDefaut : Math.min(taille, tailleMax);
+
+        List<HistoriqueVersionView> lignes;
+        if (curseur == null || curseur.isBlank()) {
+            lignes = signalementRepository.findPremierePageHistorique(idSignalement, tailleEffective + 1);
+        } else {
+            String[] position;
+            try {
+                position = decoderJeton(curseur, 3);
+                lignes = signalementRepository.findPageHistoriqueApres(idSignalement,
+                        LocalDateTime.parse(position[0]), position[1], Long.parseLong(position[2]), tailleEffective + 1);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Curseur invalide", e);
+            }
         }
 
-        // Mettre à jour les détails si fournis
-        if (request.getSurfaceM2() != null || request.getBudget() != null || request.getIdEntreprise() != null) {
-            updateDetails(signalement.getIdSignalement(), request);
+        boolean suite = lignes.size() > tailleEffective;
+        List<HistoriqueVersionView> page = suite ? lignes.subList(0, tailleEffective) : lignes;
+
+        String curseurSuivant = null;
+        if (suite) {
+            HistoriqueVersionView derniere = page.get(page.size() - 1);
+            curseurSuivant = encoderJeton(derniere.getDateDebut() + "|" + derniere.getType() + "|" + derniere.getIdVersion());
         }
 
-        // Publier événement pour synchronisation Firestore
-        eventPublisher.publishEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.UPDATED));
+        List<HistoriqueVersionResponse> elements = page.stream()
+                .map(v -> new HistoriqueVersionResponse(v.getType(), v.getIdVersion(), v.getDateDebut(),
+                        v.getDateFin(), v.getStatut(), v.getSurfaceM2(), v.getBudget(),
+                        v.getIdEntreprise(), v.getEntreprise()))
+                .collect(Collectors.toList());
+        return new PageCurseurResponse<>(elements, curseurSuivant, suite);
+    }
 
-        return buildSignalementResponse(signalement);
+    /**
+     * Exporter l'état actuel de tous les signalements en NDJSON (un objet JSON par ligne).
+     * Les lignes sont lues par curseur et écrites au fil de l'eau : la mémoire reste constante.
+     */
+    @Transactional(readOnly = true, timeoutString = "${signalement.export.timeout-secondes:600}")
+    public long exporterSignalements(OutputStream sortie) throws IOException {
+        long total = 0;
+        try (Stream<SignalementActuelView> flux = signalementRepository.streamAllActuels();
+             SequenceWriter writer = objectMapper.writer()
+                     .withRootValueSeparator("\n")
+                     .writeValues(sortie)) {
+            for (SignalementActuelView actuel : (Iterable<SignalementActuelView>) flux::iterator) {
+                writer.write(toSignalementResponse(actuel));
+                total++;
+                if (total % 500 == 0) {
+                    writer.flush();
+                }
+            }
+            // Terminer la dernière ligne
+            if (total > 0) {
+                writer.flush();
+                sortie.write('\n');
+            }
+        }
+        return total;
     }
 
     /**
-     * Mettre à jour le statut d'un signalement
+     * Récupérer les signalements d'une zone rectangulaire (filtrage par l'index spatial en mémoire)
      */
-    @Transactional
-    private void updateStatut(UUID idSignalement, String codeStatut) {
-        // Terminer le statut actuel
-        SignalementStatut statutActuel = signalementStatutRepository
-                .findByIdSignalementAndDateFinIsNull(idSignalement)
-                .orElse(null);
+    public List<SignalementResponse> getSignalementsDansZone(double minLat, double minLng, double maxLat, double maxLng) {
+        if (!(minLat >= -90 && maxLat <= 90) || Double.isNaN(minLng) || Double.isNaN(maxLng)) {
+            throw new IllegalArgumentException("Zone invalide: latitudes entre -90 et 90");
+        }
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Zone invalide: min doit être inférieur ou égal à max");
+        }
+        // Leaflet renvoie des longitudes hors [-180, 180] (vue dézoomée ou déplacée sur une copie du monde) :
+        // zone bornée au globe, ou globe entier dès qu'elle couvre 360°
+        if (maxLng - minLng >= 360) {
+            minLng = -180;
+            maxLng = 180;
+        } else {
+            minLng = Math.max(-180, Math.min(180, minLng));
+            maxLng = Math.max(-180, Math.min(180, maxLng));
+        }
+        List<UUID> ids = signalementSpatialIndex.rechercher(minLat, minLng, maxLat, maxLng).stream()
+                .map(SignalementSpatialIndex.PointSignalement::idSignalement)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return signalementRepository.findActuelsByIds(ids).stream()
+                .map(this::toSignalementResponse)
+                .collect(Collectors.toList());
+    }
 
-        if (statutActuel != null) {
-            statutActuel.setDateFin(LocalDateTime.now());
-            signalementStatutRepository.save(statutActuel);
+    /**
+     * Signalements ouverts proches d'une position (doublons potentiels avant création), du plus proche au plus éloigné
+     */
+    public List<SignalementResponse> getDoublonsPotentiels(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Position invalide");
+        }
+        List<UUID> ids = signalementDoublonService.candidats(latitude, longitude).stream()
+                .map(voisin -> voisin.point().idSignalement())
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return List.of();
         }
+        Map<UUID, SignalementResponse> parId = new HashMap<>();
+        for (SignalementActuelView actuel : signalementRepository.findActuelsByIds(ids)) {
+            parId.put(actuel.getIdSignalement(), toSignalementResponse(actuel));
+        }
+        return ids.stream().map(parId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
 
-        // Créer le nouveau statut
-        StatutSignalement nouveauStatut = statutSignalementRepository.findByCode(codeStatut)
-                .orElseThrow(() -> new RuntimeException("Statut " + codeStatut + " non trouvé"));
+    /**
+     * Rechercher dans les descriptions (racinisation française, accents ignorés),
+     * avec filtres optionnels sur le statut et la zone (les quatre bornes ou aucune)
+     */
+    public List<SignalementResponse> rechercherSignalements(String texte, String statut, Double minLat, Double minLng,
+                                                            Double maxLat, Double maxLng, Integer taille) {
+        if (texte == null || texte.isBlank()) {
+            throw new IllegalArgumentException("Texte de recherche obligatoire");
+        }
+        if (texte.length() > 200) {
+            throw new IllegalArgumentException("Texte de recherche trop long");
+        }
+        if (statut != null && !referentielRegistry.statuts().contient(statut)) {
+            throw new IllegalArgumentException("Statut inconnu: " + statut);
+        }
+        int bornes = (minLat != null ? 1 : 0) + (minLng != null ? 1 : 0) + (maxLat != null ? 1 : 0) + (maxLng != null ? 1 : 0);
+        if (bornes != 0 && bornes != 4) {
+            throw new IllegalArgumentException("Zone incomplète: minLat, minLng, maxLat et maxLng sont requis ensemble");
+        }
+        boolean zone = bornes == 4;
+        if (zone && (minLat > maxLat || minLng > maxLng)) {
+            throw new IllegalArgumentException("Zone invalide: min doit être inférieur ou égal à max");
+        }
+        int tailleEffective = taille == null || taille <= 0 ? tailleDefaut : Math.min(taille, tailleMax);
 
-        SignalementStatut statut = new SignalementStatut();
-        statut.setIdSignalement(idSignalement);
-        statut.setIdStatut(nouveauStatut.getIdStatut());
-        statut.setDateDebut(LocalDateTime.now());
-        signalementStatutRepository.save(statut);
+        return signalementRepository.rechercherActuels(texte.strip(), statut, zone,
+                        zone ? minLat : 0, zone ? minLng : 0, zone ? maxLat : 0, zone ? maxLng : 0, tailleEffective)
+                .stream()
+                .map(this::toSignalementResponse)
+                .collect(Collectors.toList());
     }
 
     /**
-     * Mettre à jour les détails d'un signalement
+     * Récupérer un signalement par ID
      */
-    @Transactional
-    private void updateDetails(UUID idSignalement, UpdateSignalementRequest request) {
-        // Terminer le détail actuel
-        SignalementDetail detailActuel = signalementDetailRepository
-                .findByIdSignalementAndDateFinIsNull(idSignalement)
-                .orElse(null);
+    public SignalementResponse getSignalementById(UUID id) {
+        return signalementRepository.findActuelById(id)
+                .map(this::toSignalementResponse)
+                .orElseThrow(() -> new RuntimeException("Signalement non trouvé"));
+    }
+
+    /**
+     * Changer le statut de nombreux signalements en une transaction (clôture d'une zone de travaux)
+     * Requêtes ensemblistes sur signalement_statut / signalement_courant, un seul événement agrégé
+     */
+    public TransitionStatutResponse changerStatutEnMasse(TransitionStatutRequest request) {
+        return executerAvecReprise(verrouiller -> transitionEnMasse(request));
+    }
 
-        if (detailActuel != null) {
-            detailActuel.setDateFin(LocalDateTime.now());
-            signalementDetailRepository.save(detailActuel);
+    private TransitionStatutResponse transitionEnMasse(TransitionStatutRequest request) {
+        Set<UUID> ids = new LinkedHashSet<>(request.getIdsSignalement());
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("Liste de signalements vide");
+        }
+        if (ids.size() > tailleMaxTransition) {
+            throw new IllegalArgumentException("Au plus " + tailleMaxTransition + " signalements par changement de statut");
+        }
+        String codeStatut = request.getStatut();
+        if (!referentielRegistry.statuts().contient(codeStatut)) {
+            throw new IllegalArgumentException("Statut " + codeStatut + " inconnu");
+        }
+        Long idStatut = referentielRegistry.statuts().getIdObligatoire(codeStatut);
+        LocalDateTime maintenant = LocalDateTime.now();
+
+        // Verrou des lignes concernées : pas de mise à jour concurrente entre lecture et écriture
+        List<SignalementTransitionView> concernes = signalementCourantRepository.verrouillerPourTransition(ids, codeStatut);
+        List<UUID> modifies = concernes.stream().map(SignalementTransitionView::getIdSignalement).toList();
+
+        if (!modifies.isEmpty()) {
+            signalementStatutRepository.clore(modifies, maintenant);
+            signalementStatutRepository.ouvrir(modifies, idStatut, maintenant);
+            signalementCourantRepository.changerStatut(modifies, idStatut, codeStatut, maintenant);
+
+            for (SignalementTransitionView concerne : concernes) {
+                signalementStatistiquesService.enregistrerDelta(
+                        new SignalementStatistiquesService.Contribution(concerne.getStatut(), concerne.getSurfaceM2(), concerne.getBudget()),
+                        new SignalementStatistiquesService.Contribution(codeStatut, concerne.getSurfaceM2(), concerne.getBudget()));
+            }
+            eventPublisher.publishEvent(new SignalementsStatutEvent(this, modifies, codeStatut, maintenant));
         }
 
-        // Créer le nouveau détail
-        SignalementDetail detail = new SignalementDetail();
-        detail.setIdSignalement(idSignalement);
-        detail.setSurfaceM2(request.getSurfaceM2());
-        detail.setBudget(request.getBudget());
-        detail.setIdEntreprise(request.getIdEntreprise());
-        detail.setDateDebut(LocalDateTime.now());
-        signalementDetailRepository.save(detail);
+        return new TransitionStatutResponse(codeStatut, maintenant, modifies, ids.size() - modifies.size());
     }
 
     /**
-     * Construire la réponse signalement
+     * Mettre à jour un signalement (statut, détails)
+     * Rejouée dans une nouvelle transaction si un écrivain concurrent a modifié le même signalement
      */
-    private SignalementResponse buildSignalementResponse(Signalement signalement) {
-        SignalementResponse response = new SignalementResponse();
-        response.setIdSignalement(signalement.getIdSignalement());
-        response.setIdUtilisateur(signalement.getIdUtilisateur());
-        response.setLatitude(signalement.getLatitude());
-        response.setLongitude(signalement.getLongitude());
-        response.setSource(signalement.getSource());
-        response.setDateCreation(signalement.getDateCreation());
+    public SignalementResponse updateSignalement(UpdateSignalementRequest request) {
+        boolean avecDetails = request.getSurfaceM2() != null || request.getBudget() != null || request.getIdEntreprise() != null;
+        return executerAvecReprise(verrouiller -> {
+            Signalement signalement = signalementRepository.findById(request.getIdSignalement())
+                    .orElseThrow(() -> new RuntimeException("Signalement non trouvé"));
 
-        // Récupérer le statut actuel
-        SignalementStatut statutActuel = signalementStatutRepository
-                .findByIdSignalementAndDateFinIsNull(signalement.getIdSignalement())
-                .orElse(null);
+            modifierEtatActuel(signalement.getIdSignalement(), request.getStatut(), avecDetails ? request : null, verrouiller);
 
-        if (statutActuel != null) {
-            StatutSignalement statut = statutSignalementRepository.findById(statutActuel.getIdStatut()).orElse(null);
-            if (statut != null) {
-                response.setStatut(statut.getCode());
-            }
+            // Publier événement pour synchronisation Firestore
+            eventPublisher.publishEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.UPDATED));
+
+            return buildSignalementResponse(signalement);
+        });
+    }
+
+    /**
+     * Nouvelle version du statut et / ou des détails d'un signalement (null = inchangé)
+     * La ligne signalement_courant est écrite en premier : son UPDATE contrôlé par version
+     * sert de verrou par signalement, l'historique n'est donc jamais écrit par deux transactions à la fois.
+     * verrouiller : lecture verrouillée de la ligne (reprise après conflit)
+     */
+    private void modifierEtatActuel(UUID idSignalement, String codeStatut, UpdateSignalementRequest details,
+                                    boolean verrouiller) {
+        if (codeStatut != null && !referentielRegistry.statuts().contient(codeStatut)) {
+            throw new IllegalArgumentException("Statut " + codeStatut + " inconnu");
+        }
+        if (codeStatut == null && details == null) {
+            return;
+        }
+        LocalDateTime maintenant = LocalDateTime.now();
+
+        // Mettre à jour la projection de l'état actuel
+        SignalementCourant courant = verrouiller
+                ? signalementCourantRepository.findPourModification(idSignalement)
+                        .orElseGet(() -> new SignalementCourant(idSignalement))
+                : getOuCreerCourant(idSignalement);
+        SignalementStatistiquesService.Contribution avant = contributionActuelle(courant);
+        Long idStatut = null;
+        if (codeStatut != null) {
+            idStatut = referentielRegistry.statuts().getIdObligatoire(codeStatut);
+            courant.setIdStatut(idStatut);
+            courant.setCodeStatut(codeStatut);
+            courant.setDateDebutStatut(maintenant);
+        }
+        if (details != null) {
+            courant.setSurfaceM2(details.getSurfaceM2());
+            courant.setBudget(details.getBudget());
+            courant.setIdEntreprise(details.getIdEntreprise());
+        }
+        courant.setDateModification(maintenant);
+        // Échoue tout de suite (version périmée) si un autre écrivain a validé entre-temps
+        signalementCourantRepository.saveAndFlush(courant);
+
+        // Terminer le statut actuel puis créer le nouveau
+        if (idStatut != null) {
+            signalementStatutRepository.clore(List.of(idSignalement), maintenant);
+
+            SignalementStatut statut = new SignalementStatut();
+            statut.setIdSignalement(idSignalement);
+            statut.setIdStatut(idStatut);
+            statut.setDateDebut(maintenant);
+            signalementStatutRepository.save(statut);
         }
 
-        // Récupérer les détails actuels
-        SignalementDetail detailActuel = signalementDetailRepository
-                .findByIdSignalementAndDateFinIsNull(signalement.getIdSignalement())
-                .orElse(null);
+        // Terminer le détail actuel puis créer le nouveau
+        if (details != null) {
+            signalementDetailRepository.clore(idSignalement, maintenant);
+
+            SignalementDetail detail = new SignalementDetail();
+            detail.setIdSignalement(idSignalement);
+            detail.setSurfaceM2(details.getSurfaceM2());
+            detail.setBudget(details.getBudget());
+            detail.setIdEntreprise(details.getIdEntreprise());
+            detail.setDateDebut(maintenant);
+            signalementDetailRepository.save(detail);
+        }
 
-        if (detailActuel != null) {
-            response.setSurfaceM2(detailActuel.getSurfaceM2());
-            response.setBudget(detailActuel.getBudget());
+        signalementStatistiquesService.enregistrerDelta(avant, SignalementStatistiquesService.Contribution.de(courant));
+    }
 
-            if (detailActuel.getIdEntreprise() != null) {
-                Entreprise entreprise = entrepriseRepository.findById(detailActuel.getIdEntreprise()).orElse(null);
-                if (entreprise != null) {
-                    response.setEntreprise(entreprise.getNom());
+    /**
+     * Exécuter une écriture dans sa propre transaction, rejouée en cas de conflit de concurrence
+     * (version périmée, verrou mortel, seconde version ouverte refusée par l'index unique partiel).
+     * Première tentative optimiste ; les reprises verrouillent la ligne lue et attendent donc leur tour
+     * au lieu de relancer la course. Sans verrou global : les écritures sur des signalements différents restent parallèles.
+     */
+    private <T> T executerAvecReprise(Function<Boolean, T> ecriture) {
+        // Déjà dans une transaction : le conflit remonte à l'appelant, seul à pouvoir rejouer
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return ecriture.apply(false);
+        }
+        for (int tentative = 1; ; tentative++) {
+            boolean verrouiller = tentative > 1;
+            try {
+                return transactionTemplate.execute(status -> ecriture.apply(verrouiller));
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (!estConflit(e) || tentative >= tentativesMax) {
+                    throw e;
                 }
+                logger.debug("Conflit d'écriture concurrente (tentative {}/{}): {}", tentative, tentativesMax, e.getMessage());
+                attendreAvantReprise(tentative);
             }
         }
+    }
+
+    private static boolean estConflit(RuntimeException e) {
+        if (e instanceof ConcurrencyFailureException) {
+            return true;
+        }
+        // Violation d'unicité (23505) : un écrivain concurrent a ouvert la version avant nous
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        return cause instanceof SQLException sql && "23505".equals(sql.getSQLState());
+    }
+
+    private static void attendreAvantReprise(int tentative) {
+        // Attente courte et aléatoire : les écrivains en conflit ne se retrouvent pas au même instant
+        long maxMillis = 5L << Math.min(tentative, 5);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, maxMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reprise interrompue", e);
+        }
+    }
+
+    /**
+     * Ligne de projection du signalement (créée si absente, ex. données antérieures à la projection)
+     */
+    private SignalementCourant getOuCreerCourant(UUID idSignalement) {
+        return signalementCourantRepository.findById(idSignalement)
+                .orElseGet(() -> new SignalementCourant(idSignalement));
+    }
+
+    /**
+     * Contribution actuelle aux statistiques (null si la ligne de projection n'existe pas encore)
+     */
+    private SignalementStatistiquesService.Contribution contributionActuelle(SignalementCourant courant) {
+        return courant.isNew() ? null : SignalementStatistiquesService.Contribution.de(courant);
+    }
+
+    /**
+     * Reconstruire entièrement la projection signalement_courant depuis l'historique
+     */
+    @Transactional
+    public int reconstruireProjection() {
+        signalementCourantRepository.viderProjection();
+        return signalementCourantRepository.reconstruireProjection();
+    }
 
+    /**
+     * Construire la réponse signalement (état actuel relu en une seule requête)
+     */
+    private SignalementResponse buildSignalementResponse(Signalement signalement) {
+        return signalementRepository.findActuelById(signalement.getIdSignalement())
+                .map(this::toSignalementResponse)
+                .orElseThrow(() -> new RuntimeException("Signalement non trouvé"));
+    }
+
+    /**
+     * Convertir la projection de l'état actuel en réponse
+     */
+    private SignalementResponse toSignalementResponse(SignalementActuelView actuel) {
+        SignalementResponse response = new SignalementResponse();
+        response.setIdSignalement(actuel.getIdSignalement());
+        response.setIdUtilisateur(actuel.getIdUtilisateur());
+        response.setLatitude(actuel.getLatitude());
+        response.setLongitude(actuel.getLongitude());
+        response.setSource(actuel.getSource());
+        response.setDateCreation(actuel.getDateCreation());
+        response.setDescription(actuel.getDescription());
+        response.setIdDoublonDe(actuel.getIdDoublonDe());
+        response.setStatut(actuel.getStatut());
+        response.setSurfaceM2(actuel.getSurfaceM2());
+        response.setBudget(actuel.getBudget());
+        response.setEntreprise(entrepriseCache.getNom(actuel.getIdEntreprise()));
         return response;
     }
 
+    /**
+     * Encoder la position (date_creation, id_signalement) en jeton opaque
+     */
+    private String encoderCurseur(LocalDateTime dateCreation, UUID idSignalement) {
+        return encoderJeton(dateCreation + "|" + idSignalement);
+    }
+
+    /**
+     * Décoder un jeton de curseur en [date_creation, id_signalement]
+     */
+    private String[] decoderCurseur(String curseur) {
+        try {
+            String[] parties = decoderJeton(curseur, 2);
+            LocalDateTime.parse(parties[0]);
+            UUID.fromString(parties[1]);
+            return parties;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+
+    private String encoderJeton(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decoderJeton(String curseur, int nombreParties) {
+        String position = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+        String[] parties = position.split("\\|");
+        if (parties.length != nombreParties) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        return parties;
+    }
+
     /**
      * Supprimer un signalement (soft delete via statut)
      */
-    @Transactional
     public void deleteSignalement(UUID idSignalement) {
-        Signalement signalement = signalementRepository.findById(idSignalement)
-                .orElseThrow(() -> new RuntimeException("Signalement non trouvé"));
-        
-        // Marquer comme TERMINE ou implémenter une vraie suppression si nécessaire
-        updateStatut(idSignalement, "TERMINE");
+        executerAvecReprise(verrouiller -> {
+            Signalement signalement = signalementRepository.findById(idSignalement)
+                    .orElseThrow(() -> new RuntimeException("Signalement non trouvé"));
+
+            // Marquer comme TERMINE ou implémenter une vraie suppression si nécessaire
+            modifierEtatActuel(idSignalement, "TERMINE", null, verrouiller);
 
-        // Publier événement pour synchronisation Firestore
-        eventPublisher.publishEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.DELETED));
+            // Publier événement pour synchronisation Firestore
+            eventPublisher.publishEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.DELETED));
+            return null;
+        });
     }
 
 }
\ No newline at end of file
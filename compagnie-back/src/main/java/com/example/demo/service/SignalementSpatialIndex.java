@@ -0,0 +1,334 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.Signalement;
+import com.example.demo.event.SignalementEvent;
+import com.example.demo.event.SignalementsStatutEvent;
+import com.example.demo.repository.SignalementActuelView;
+import com.example.demo.repository.SignalementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Index spatial en mémoire des signalements (grille régulière en degrés)
+ * Construit au démarrage depuis PostgreSQL puis tenu à jour par les SignalementEvent.
+ * Reconstruction sur une grille à part, remplacée d'un bloc : les lectures en cours gardent l'ancienne ;
+ * les événements reçus pendant la reconstruction sont rejoués sur la nouvelle avant le remplacement.
+ */
+@Component
+public class SignalementSpatialIndex implements ChargementDemarrage {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignalementSpatialIndex.class);
+
+    private static final double RAYON_TERRE_METRES = 6_371_000.0;
+    private static final double METRES_PAR_DEGRE = Math.toRadians(1) * RAYON_TERRE_METRES;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Value("${signalement.index.taille-cellule-degres:0.01}")
+    private double tailleCellule;
+
+    // Grille courante, remplacée à chaque reconstruction (modifications sous verrou de l'instance)
+    private volatile Grille grille = new Grille();
+
+    private volatile boolean initialise = false;
+
+    // Mises à jour reçues pendant une reconstruction, rejouées sur la nouvelle grille (null hors reconstruction)
+    private List<Consumer<Grille>> enAttente;
+
+    // Une reconstruction à la fois
+    private final Object reconstruction = new Object();
+
+    private static final class Grille {
+        // id_signalement → position et statut actuels
+        final Map<UUID, PointSignalement> points = new ConcurrentHashMap<>();
+
+        // clé de cellule → ids des signalements de la cellule
+        final Map<Long, Set<UUID>> cellules = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Position indexée d'un signalement
+     */
+    public record PointSignalement(UUID idSignalement, UUID idUtilisateur, double latitude, double longitude,
+                                   String statut) {
+    }
+
+    /**
+     * Signalement proche d'une position, avec sa distance
+     */
+    public record Voisin(PointSignalement point, double distanceMetres) {
+    }
+
+    @Override
+    public String nomChargement() {
+        return "Index spatial";
+    }
+
+    @Override
+    public void charger() {
+        reconstruire();
+    }
+
+    /**
+     * Reconstruire entièrement l'index depuis la base
+     */
+    public void reconstruire() {
+        synchronized (reconstruction) {
+            construire();
+        }
+    }
+
+    private void construire() {
+        synchronized (this) {
+            enAttente = new ArrayList<>();
+        }
+        try {
+            Grille nouvelle = new Grille();
+            for (SignalementActuelView actuel : signalementRepository.findAllActuels()) {
+                indexer(nouvelle, new PointSignalement(actuel.getIdSignalement(), actuel.getIdUtilisateur(),
+                        actuel.getLatitude(), actuel.getLongitude(), actuel.getStatut()));
+            }
+            synchronized (this) {
+                // Mises à jour idempotentes (état relu ou connu) : sans effet si la lecture les contient déjà
+                enAttente.forEach(miseAJour -> miseAJour.accept(nouvelle));
+                grille = nouvelle;
+                initialise = true;
+            }
+            logger.info("Index spatial construit: {} signalements, {} cellules",
+                    nouvelle.points.size(), nouvelle.cellules.size());
+        } finally {
+            synchronized (this) {
+                enAttente = null;
+            }
+        }
+    }
+
+    /**
+     * Tenir l'index à jour après commit d'une création / modification / import
+     */
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSignalementEvent(SignalementEvent event) {
+        if (!aTenirAJour()) {
+            return;
+        }
+        Signalement signalement = event.getSignalement();
+        UUID idSignalement = signalement.getIdSignalement();
+
+        // Création : position et statut NOUVEAU connus, pas de relecture (création par lot)
+        if (event.getEventType() == SignalementEvent.EventType.CREATED) {
+            PointSignalement point = new PointSignalement(idSignalement, signalement.getIdUtilisateur(),
+                    signalement.getLatitude(), signalement.getLongitude(), "NOUVEAU");
+            mettreAJour(g -> indexer(g, point));
+            return;
+        }
+        Consumer<Grille> miseAJour = signalementRepository.findActuelById(idSignalement)
+                .<Consumer<Grille>>map(actuel -> {
+                    PointSignalement point = new PointSignalement(actuel.getIdSignalement(), actuel.getIdUtilisateur(),
+                            actuel.getLatitude(), actuel.getLongitude(), actuel.getStatut());
+                    return g -> indexer(g, point);
+                })
+                .orElse(g -> retirer(g, idSignalement));
+        mettreAJour(miseAJour);
+    }
+
+    /**
+     * Changement de statut en masse : seul le statut change, la position et la cellule restent
+     */
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSignalementsStatutEvent(SignalementsStatutEvent event) {
+        if (!aTenirAJour()) {
+            return;
+        }
+        mettreAJour(g -> {
+            for (UUID idSignalement : event.getIdsSignalement()) {
+                g.points.computeIfPresent(idSignalement, (id, point) ->
+                        new PointSignalement(id, point.idUtilisateur(), point.latitude(), point.longitude(),
+                                event.getCodeStatut()));
+            }
+        });
+    }
+
+    /**
+     * Index construit ou en construction ; sinon la prochaine construction relira ce changement déjà validé
+     */
+    private synchronized boolean aTenirAJour() {
+        return initialise || enAttente != null;
+    }
+
+    /**
+     * Appliquer à la grille courante, et retenir pour la reconstruction en cours
+     */
+    private synchronized void mettreAJour(Consumer<Grille> miseAJour) {
+        if (enAttente != null) {
+            enAttente.add(miseAJour);
+        }
+        if (initialise) {
+            miseAJour.accept(grille);
+        }
+    }
+
+    /**
+     * Position indexée d'un signalement, ou null s'il n'est pas indexé
+     */
+    public PointSignalement trouver(UUID idSignalement) {
+        return grille.points.get(idSignalement);
+    }
+
+    /**
+     * Ids et positions des signalements contenus dans la zone (bornes incluses)
+     */
+    public List<PointSignalement> rechercher(double minLat, double minLng, double maxLat, double maxLng) {
+        initialiserSiNecessaire();
+        Grille g = grille;
+        Map<UUID, PointSignalement> points = g.points;
+
+        // Cellules bornées au globe : une zone débordante (voisins près des pôles) ne parcourt rien de plus
+        long minX = Math.max(indiceCellule(minLat), indiceCellule(-90));
+        long maxX = Math.min(indiceCellule(maxLat), indiceCellule(90));
+        long minY = Math.max(indiceCellule(minLng), indiceCellule(-180));
+        long maxY = Math.min(indiceCellule(maxLng), indiceCellule(180));
+
+        List<PointSignalement> resultat = new ArrayList<>();
+        if (minX > maxX || minY > maxY) {
+            return resultat;
+        }
+
+        // Zone très large (zoom arrière) : parcourir les points est moins coûteux que les cellules
+        if ((double) (maxX - minX + 1) * (maxY - minY + 1) > points.size()) {
+            for (PointSignalement point : points.values()) {
+                if (contient(point, minLat, minLng, maxLat, maxLng)) {
+                    resultat.add(point);
+                }
+            }
+            return resultat;
+        }
+
+        for (long x = minX; x <= maxX; x++) {
+            for (long y = minY; y <= maxY; y++) {
+                Set<UUID> ids = g.cellules.get(cle(x, y));
+                if (ids == null) {
+                    continue;
+                }
+                for (UUID id : ids) {
+                    PointSignalement point = points.get(id);
+                    if (point != null && contient(point, minLat, minLng, maxLat, maxLng)) {
+                        resultat.add(point);
+                    }
+                }
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Signalements à moins de rayonMetres de la position, du plus proche au plus éloigné
+     * (cellules de la zone englobante uniquement, puis distance exacte)
+     */
+    public List<Voisin> voisins(double latitude, double longitude, double rayonMetres) {
+        double deltaLat = rayonMetres / METRES_PAR_DEGRE;
+        double deltaLng = rayonMetres / (METRES_PAR_DEGRE * Math.max(Math.cos(Math.toRadians(latitude)), 1e-6));
+
+        List<Voisin> resultat = new ArrayList<>();
+        for (PointSignalement point : rechercher(latitude - deltaLat, longitude - deltaLng,
+                latitude + deltaLat, longitude + deltaLng)) {
+            double distance = distanceMetres(latitude, longitude, point.latitude(), point.longitude());
+            if (distance <= rayonMetres) {
+                resultat.add(new Voisin(point, distance));
+            }
+        }
+        resultat.sort(Comparator.comparingDouble(Voisin::distanceMetres));
+        return resultat;
+    }
+
+    /**
+     * Distance à vol d'oiseau (haversine)
+     */
+    static double distanceMetres(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RAYON_TERRE_METRES * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void initialiserSiNecessaire() {
+        if (!initialise) {
+            synchronized (reconstruction) {
+                if (!initialise) {
+                    construire();
+                }
+            }
+        }
+    }
+
+    public int taille() {
+        return grille.points.size();
+    }
+
+    private void indexer(Grille g, PointSignalement point) {
+        PointSignalement ancien = g.points.put(point.idSignalement(), point);
+
+        long nouvelleCle = cleCellule(point.latitude(), point.longitude());
+        if (ancien != null) {
+            long ancienneCle = cleCellule(ancien.latitude(), ancien.longitude());
+            if (ancienneCle == nouvelleCle) {
+                return;
+            }
+            retirerDeCellule(g, ancienneCle, ancien.idSignalement());
+        }
+        g.cellules.compute(nouvelleCle, (k, ids) -> {
+            Set<UUID> contenu = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            contenu.add(point.idSignalement());
+            return contenu;
+        });
+    }
+
+    private void retirer(Grille g, UUID idSignalement) {
+        PointSignalement ancien = g.points.remove(idSignalement);
+        if (ancien != null) {
+            retirerDeCellule(g, cleCellule(ancien.latitude(), ancien.longitude()), idSignalement);
+        }
+    }
+
+    private void retirerDeCellule(Grille g, long cle, UUID idSignalement) {
+        g.cellules.computeIfPresent(cle, (k, ids) -> {
+            ids.remove(idSignalement);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private boolean contient(PointSignalement point, double minLat, double minLng, double maxLat, double maxLng) {
+        return point.latitude() >= minLat && point.latitude() <= maxLat
+                && point.longitude() >= minLng && point.longitude() <= maxLng;
+    }
+
+    private long indiceCellule(double coordonnee) {
+        return (long) Math.floor(coordonnee / tailleCellule);
+    }
+
+    private long cleCellule(double latitude, double longitude) {
+        return cle(indiceCellule(latitude), indiceCellule(longitude));
+    }
+
+    private long cle(long x, long y) {
+        return (x << 32) ^ (y & 0xFFFFFFFFL);
+    }
+}
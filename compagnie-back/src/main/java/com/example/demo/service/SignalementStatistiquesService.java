@@ -0,0 +1,226 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.StatistiquesResponse;
+import com.example.demo.entite.SignalementCourant;
+import com.example.demo.repository.SignalementCourantRepository;
+import com.example.demo.repository.StatistiqueStatutView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Statistiques du tableau de bord tenues à jour par deltas
+ * (création, changement de statut / détail, import Firestore) ; lecture en temps constant
+ */
+@Service
+public class SignalementStatistiquesService implements ChargementDemarrage {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignalementStatistiquesService.class);
+
+    // Poids de chaque statut dans le pourcentage d'avancement
+    private static final Map<String, Integer> AVANCEMENT_PAR_STATUT = Map.of(
+            "NOUVEAU", 0,
+            "EN_COURS", 50,
+            "TERMINE", 100);
+
+    private static final String SANS_STATUT = "INCONNU";
+
+    @Autowired
+    private SignalementCourantRepository signalementCourantRepository;
+
+    // Agrégats par code statut (accès sous verrou de l'instance)
+    private final Map<String, Agregat> agregats = new TreeMap<>();
+
+    // Partagé par les transactions entre leur commit et l'application de leur delta, exclusif pendant
+    // la lecture d'un recalcul : un changement est soit dans la lecture, soit appliqué après, jamais les deux
+    private final ReadWriteLock commits = new ReentrantReadWriteLock();
+
+    private volatile boolean initialise = false;
+
+    /**
+     * Contribution d'un signalement aux statistiques (état de sa ligne signalement_courant)
+     */
+    public record Contribution(String statut, BigDecimal surface, BigDecimal budget) {
+
+        public static Contribution de(SignalementCourant courant) {
+            return new Contribution(courant.getCodeStatut(), courant.getSurfaceM2(), courant.getBudget());
+        }
+    }
+
+    private static final class Agregat {
+        long nombre;
+        BigDecimal surface = BigDecimal.ZERO;
+        BigDecimal budget = BigDecimal.ZERO;
+
+        boolean estVide() {
+            return nombre == 0 && surface.signum() == 0 && budget.signum() == 0;
+        }
+    }
+
+    @Override
+    public String nomChargement() {
+        return "Statistiques";
+    }
+
+    @Override
+    public void charger() {
+        recalculer();
+    }
+
+    /**
+     * Recalcul complet depuis la projection (réconciliation)
+     * Attend les commits en cours (et leurs deltas) ; les transactions suivantes attendent la fin de la lecture
+     */
+    public void recalculer() {
+        commits.writeLock().lock();
+        try {
+            List<StatistiqueStatutView> lignes = signalementCourantRepository.statistiquesParStatut();
+            synchronized (this) {
+                agregats.clear();
+                for (StatistiqueStatutView ligne : lignes) {
+                    Agregat agregat = agregats.computeIfAbsent(cle(ligne.getStatut()), k -> new Agregat());
+                    agregat.nombre += ligne.getNombre();
+                    agregat.surface = agregat.surface.add(valeur(ligne.getSurface()));
+                    agregat.budget = agregat.budget.add(valeur(ligne.getBudget()));
+                }
+                initialise = true;
+                logger.info("Statistiques recalculées: {} statuts", agregats.size());
+            }
+        } finally {
+            commits.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Enregistrer le passage d'un signalement de l'état avant à l'état après
+     * (null = signalement absent des statistiques). Appliqué après commit de la transaction en cours,
+     * sans chevaucher la lecture d'un recalcul (verrou partagé du commit à l'application)
+     */
+    public void enregistrerDelta(Contribution avant, Contribution apres) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean verrouille;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commits.readLock().lock();
+                    verrouille = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    appliquer(avant, apres);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (verrouille) {
+                        verrouille = false;
+                        commits.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            appliquer(avant, apres);
+        }
+    }
+
+    /**
+     * Statistiques actuelles
+     */
+    public StatistiquesResponse getStatistiques() {
+        if (!initialise) {
+            recalculer();
+        }
+        synchronized (this) {
+            return construire();
+        }
+    }
+
+    private StatistiquesResponse construire() {
+        long nbTotal = 0;
+        BigDecimal totalSurface = BigDecimal.ZERO;
+        BigDecimal totalBudget = BigDecimal.ZERO;
+        long avancement = 0;
+        for (Map.Entry<String, Agregat> entree : agregats.entrySet()) {
+            Agregat agregat = entree.getValue();
+            nbTotal += agregat.nombre;
+            totalSurface = totalSurface.add(agregat.surface);
+            totalBudget = totalBudget.add(agregat.budget);
+            avancement += agregat.nombre * AVANCEMENT_PAR_STATUT.getOrDefault(entree.getKey(), 0);
+        }
+
+        List<StatistiquesResponse.StatutStatistiques> parStatut = new ArrayList<>();
+        for (Map.Entry<String, Agregat> entree : agregats.entrySet()) {
+            Agregat agregat = entree.getValue();
+            parStatut.add(new StatistiquesResponse.StatutStatistiques(
+                    entree.getKey(),
+                    agregat.nombre,
+                    agregat.surface.setScale(2, RoundingMode.HALF_UP),
+                    agregat.budget.setScale(2, RoundingMode.HALF_UP),
+                    pourcentage(agregat.nombre * 100, nbTotal)));
+        }
+
+        return new StatistiquesResponse(
+                nbTotal,
+                totalSurface.setScale(2, RoundingMode.HALF_UP),
+                totalBudget.setScale(2, RoundingMode.HALF_UP),
+                pourcentage(avancement, nbTotal),
+                parStatut);
+    }
+
+    private synchronized void appliquer(Contribution avant, Contribution apres) {
+        // Avant initialisation, le recalcul complet inclura déjà ce changement
+        if (!initialise) {
+            return;
+        }
+        if (avant != null) {
+            ajouter(avant, -1);
+        }
+        if (apres != null) {
+            ajouter(apres, 1);
+        }
+    }
+
+    private void ajouter(Contribution contribution, int signe) {
+        String cle = cle(contribution.statut());
+        Agregat agregat = agregats.computeIfAbsent(cle, k -> new Agregat());
+        agregat.nombre += signe;
+        BigDecimal surface = valeur(contribution.surface());
+        BigDecimal budget = valeur(contribution.budget());
+        agregat.surface = signe > 0 ? agregat.surface.add(surface) : agregat.surface.subtract(surface);
+        agregat.budget = signe > 0 ? agregat.budget.add(budget) : agregat.budget.subtract(budget);
+        if (agregat.estVide()) {
+            agregats.remove(cle);
+        }
+    }
+
+    private static String cle(String statut) {
+        return statut != null ? statut : SANS_STATUT;
+    }
+
+    private static BigDecimal valeur(BigDecimal montant) {
+        return montant != null ? montant : BigDecimal.ZERO;
+    }
+
+    private static double pourcentage(long numerateur, long total) {
+        if (total == 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(numerateur)
+                .divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.event.EntrepriseEvent;
+import com.example.demo.event.SignalementEvent;
+import com.example.demo.event.SignalementsStatutEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version des données signalement servant d'ETag fort aux endpoints de lecture
+ * Incrémentée après commit de chaque création / modification / import : la version
+ * est lue avant la requête en base, un ETag ne peut donc jamais couvrir des données plus anciennes
+ * Au plus signalement.etag.max-signalements versions par id : au-delà, la plus ancienne moitié est
+ * oubliée et la version de base relevée d'autant (ETag changés, jamais un 304 sur une donnée périmée)
+ */
+@Component
+public class SignalementVersionService {
+
+    @Value("${signalement.etag.max-signalements:100000}")
+    private int maxSignalements;
+
+    // Distingue les versions d'un redémarrage à l'autre (compteurs en mémoire)
+    private final String epoque = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    // Version minimale de tout signalement (relevée par invaliderTout)
+    private volatile long versionBase = 0;
+
+    // id_signalement → version de sa dernière modification
+    private final Map<UUID, Long> versionsParId = new ConcurrentHashMap<>();
+
+    @Order(20)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onSignalementEvent(SignalementEvent event) {
+        long nouvelle = version.incrementAndGet();
+        versionsParId.put(event.getSignalement().getIdSignalement(), nouvelle);
+        limiter();
+    }
+
+    @Order(20)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onSignalementsStatutEvent(SignalementsStatutEvent event) {
+        long nouvelle = version.incrementAndGet();
+        for (UUID idSignalement : event.getIdsSignalement()) {
+            versionsParId.put(idSignalement, nouvelle);
+        }
+        limiter();
+    }
+
+    /**
+     * Le nom d'entreprise figure dans chaque réponse signalement
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntrepriseEvent(EntrepriseEvent event) {
+        invaliderTout();
+    }
+
+    /**
+     * Invalider tous les ETag (modification hors des flux applicatifs, reconstruction de projection)
+     */
+    public synchronized void invaliderTout() {
+        versionBase = version.incrementAndGet();
+        versionsParId.clear();
+    }
+
+    /**
+     * Oublier la plus ancienne moitié des versions par id (appelant synchronisé), base relevée avant
+     */
+    private void limiter() {
+        if (versionsParId.size() <= maxSignalements) {
+            return;
+        }
+        long[] versions = versionsParId.values().stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(versions);
+        long seuil = versions[versions.length - maxSignalements / 2 - 1];
+        versionBase = Math.max(versionBase, seuil);
+        versionsParId.values().removeIf(versionId -> versionId <= seuil);
+    }
+
+    /**
+     * ETag de l'ensemble des signalements (listes, statistiques)
+     */
+    public String etagGlobal() {
+        return "\"" + epoque + "-" + version.get() + "\"";
+    }
+
+    /**
+     * ETag d'un signalement
+     */
+    public String etagSignalement(UUID idSignalement) {
+        // Version par id d'abord : une entrée oubliée l'est après le relèvement de la base
+        long versionId = versionsParId.getOrDefault(idSignalement, 0L);
+        long base = versionBase;
+        return "\"" + epoque + "-" + idSignalement + "-" + Math.max(base, versionId) + "\"";
+    }
+}
@@ -0,0 +1,68 @@
+-- ============================================================
+-- V10 : Unicité des identifiants d'historique, partition par
+--       défaut pour tentative_connexion
+-- ============================================================
+-- signalement_statut, signalement_detail, utilisateur_etat (V6) :
+--   clé primaire impossible (date_fin, clé de partition, est nullable).
+--   Contrainte UNIQUE NULLS NOT DISTINCT (id, date_fin) à la place :
+--   identifiant unique dans la partition chaude (toutes les lignes y ont
+--   date_fin NULL) et par date de clôture dans les partitions mensuelles.
+--   Comme pour toute table partitionnée, l'unicité d'un identifiant entre
+--   deux partitions n'est pas vérifiable ; les identifiants viennent des
+--   séquences et ne changent pas quand une ligne close change de partition.
+-- tentative_connexion : partition par défaut, pour qu'une insertion
+--   n'échoue pas si la partition du mois n'a pas été créée à temps.
+--   creer_partitions_mensuelles y reprend les lignes du mois créé.
+-- ============================================================
+
+ALTER TABLE signalement_statut
+    ADD CONSTRAINT uk_signalement_statut_id UNIQUE NULLS NOT DISTINCT (id_signalement_statut, date_fin);
+ALTER TABLE signalement_detail
+    ADD CONSTRAINT uk_signalement_detail_id UNIQUE NULLS NOT DISTINCT (id_detail, date_fin);
+ALTER TABLE utilisateur_etat
+    ADD CONSTRAINT uk_utilisateur_etat_id UNIQUE NULLS NOT DISTINCT (id_utilisateur_etat, date_fin);
+
+-- Remplacés par les contraintes (même première colonne)
+DROP INDEX idx_signalement_statut_id;
+DROP INDEX idx_signalement_detail_id;
+DROP INDEX idx_utilisateur_etat_id;
+
+CREATE TABLE tentative_connexion_defaut PARTITION OF tentative_connexion DEFAULT;
+
+-- Partitions <table>_AAAA_MM du mois courant et des p_mois_avance mois suivants.
+-- Table avec une partition <table>_defaut : les lignes du mois qui y sont tombées
+-- sont déplacées dans la nouvelle partition avant son rattachement.
+CREATE OR REPLACE FUNCTION creer_partitions_mensuelles(p_table TEXT, p_mois_avance INT)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+    v_mois DATE := date_trunc('month', now())::date;
+    v_suivant DATE;
+    v_nom TEXT;
+    v_defaut TEXT := p_table || '_defaut';
+    v_cle TEXT;
+    v_creees INT := 0;
+BEGIN
+    IF to_regclass(v_defaut) IS NOT NULL THEN
+        v_cle := substring(pg_get_partkeydef(p_table::regclass) FROM $r$RANGE \((\w+)\)$r$);
+    END IF;
+    FOR i IN 0..p_mois_avance LOOP
+        v_nom := p_table || '_' || to_char(v_mois, 'YYYY_MM');
+        v_suivant := (v_mois + INTERVAL '1 month')::date;
+        IF to_regclass(v_nom) IS NULL THEN
+            IF v_cle IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                               v_nom, p_table, v_mois, v_suivant);
+            ELSE
+                EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', v_nom, p_table);
+                EXECUTE format('WITH deplacees AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) ' ||
+                               'INSERT INTO %I SELECT * FROM deplacees',
+                               v_defaut, v_cle, v_mois, v_cle, v_suivant, v_nom);
+                EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                               p_table, v_nom, v_mois, v_suivant);
+            END IF;
+            v_creees := v_creees + 1;
+        END IF;
+        v_mois := v_suivant;
+    END LOOP;
+    RETURN v_creees;
+END $$;
@@ -0,0 +1,13 @@
+-- ============================================================
+-- V11 : Identifiant du document Firestore d'un signalement importé
+-- ============================================================
+-- L'import depuis Firestore reconnaît un signalement déjà importé par
+-- l'identifiant de son document, et non par sa position : deux
+-- signalements proches du même auteur restent distincts (le second est
+-- marqué id_doublon_de, V8).
+-- ============================================================
+
+ALTER TABLE signalement ADD COLUMN id_firestore VARCHAR(128);
+
+CREATE UNIQUE INDEX ux_signalement_id_firestore
+    ON signalement (id_firestore) WHERE id_firestore IS NOT NULL;
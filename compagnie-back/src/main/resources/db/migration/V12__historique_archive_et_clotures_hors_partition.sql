@@ -0,0 +1,87 @@
+-- ============================================================
+-- V12 : Historique complet malgré l'archivage, clôture sans
+--       partition mensuelle
+-- ============================================================
+-- signalement_statut, signalement_detail, utilisateur_etat (V6) :
+--   la partition par défaut <table>_ouvert n'acceptait que des lignes
+--   ouvertes ; clore une version dont le mois de date_fin n'a pas de
+--   partition (maintenance en retard) échouait. Elle reçoit désormais
+--   aussi ces lignes closes ; creer_partitions_mensuelles les déplace
+--   dans la partition du mois à sa création (comme tentative_connexion,
+--   V10). Les lectures de l'état actuel (date_fin IS NULL) ne lisent
+--   toujours que cette partition.
+-- Vues v_<table>_historique : partitions actives et <table>_archive,
+--   pour que l'historique d'un signalement ne soit pas tronqué par
+--   l'archivage (HistoriquePartitionService).
+-- ============================================================
+
+ALTER TABLE signalement_statut_ouvert DROP CONSTRAINT ck_signalement_statut_ouvert;
+ALTER TABLE signalement_detail_ouvert DROP CONSTRAINT ck_signalement_detail_ouvert;
+ALTER TABLE utilisateur_etat_ouvert DROP CONSTRAINT ck_utilisateur_etat_ouvert;
+
+-- Au plus une ligne ouverte par signalement (V4) : limité aux lignes ouvertes
+DROP INDEX ux_signalement_statut_ouvert;
+DROP INDEX ux_signalement_detail_ouvert;
+DROP INDEX idx_utilisateur_etat_ouvert;
+CREATE UNIQUE INDEX ux_signalement_statut_ouvert ON signalement_statut_ouvert (id_signalement)
+    WHERE date_fin IS NULL;
+CREATE UNIQUE INDEX ux_signalement_detail_ouvert ON signalement_detail_ouvert (id_signalement)
+    WHERE date_fin IS NULL;
+CREATE INDEX idx_utilisateur_etat_ouvert ON utilisateur_etat_ouvert (id_utilisateur)
+    WHERE date_fin IS NULL;
+
+-- Partitions <table>_AAAA_MM du mois courant et des p_mois_avance mois suivants.
+-- Table avec une partition par défaut : les lignes du mois qui y sont tombées
+-- sont déplacées dans la nouvelle partition avant son rattachement.
+CREATE OR REPLACE FUNCTION creer_partitions_mensuelles(p_table TEXT, p_mois_avance INT)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+    v_mois DATE := date_trunc('month', now())::date;
+    v_suivant DATE;
+    v_nom TEXT;
+    v_defaut TEXT;
+    v_cle TEXT;
+    v_creees INT := 0;
+BEGIN
+    SELECT d.relname INTO v_defaut
+    FROM pg_partitioned_table p
+    JOIN pg_class d ON d.oid = p.partdefid
+    WHERE p.partrelid = p_table::regclass;
+    IF v_defaut IS NOT NULL THEN
+        v_cle := substring(pg_get_partkeydef(p_table::regclass) FROM $r$RANGE \((\w+)\)$r$);
+    END IF;
+    FOR i IN 0..p_mois_avance LOOP
+        v_nom := p_table || '_' || to_char(v_mois, 'YYYY_MM');
+        v_suivant := (v_mois + INTERVAL '1 month')::date;
+        IF to_regclass(v_nom) IS NULL THEN
+            IF v_cle IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                               v_nom, p_table, v_mois, v_suivant);
+            ELSE
+                EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', v_nom, p_table);
+                EXECUTE format('WITH deplacees AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) ' ||
+                               'INSERT INTO %I SELECT * FROM deplacees',
+                               v_defaut, v_cle, v_mois, v_cle, v_suivant, v_nom);
+                EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                               p_table, v_nom, v_mois, v_suivant);
+            END IF;
+            v_creees := v_creees + 1;
+        END IF;
+        v_mois := v_suivant;
+    END LOOP;
+    RETURN v_creees;
+END $$;
+
+CREATE VIEW v_signalement_statut_historique AS
+SELECT id_signalement_statut, id_signalement, id_statut, date_debut, date_fin
+FROM signalement_statut
+UNION ALL
+SELECT id_signalement_statut, id_signalement, id_statut, date_debut, date_fin
+FROM signalement_statut_archive;
+
+CREATE VIEW v_signalement_detail_historique AS
+SELECT id_detail, id_signalement, surface_m2, budget, id_entreprise, date_debut, date_fin
+FROM signalement_detail
+UNION ALL
+SELECT id_detail, id_signalement, surface_m2, budget, id_entreprise, date_debut, date_fin
+FROM signalement_detail_archive;
@@ -1,34 +1,16 @@
 -- ============================================================
 -- PROJET CLOUD S5
--- BASE DE DONNEES COMPLETE
+-- V1 : SCHEMA INITIAL (ex base.sql + add-firebase-uid.sql)
 -- 3FN + HISTORISATION (INSERT ONLY)
 -- PostgreSQL
 -- ============================================================
-
--- ============================================================
--- 1. NETTOYAGE
+-- Une base existante créée avec les anciens scripts est marquée
+-- à cette version (spring.flyway.baseline-version=1) : seules
+-- les migrations suivantes lui sont appliquées.
 -- ============================================================
 
-DROP VIEW IF EXISTS v_utilisateur_actif CASCADE;
-DROP VIEW IF EXISTS v_signalement_actuel CASCADE;
-
-DROP TABLE IF EXISTS signalement_detail CASCADE;
-DROP TABLE IF EXISTS signalement_statut CASCADE;
-DROP TABLE IF EXISTS statut_signalement CASCADE;
-DROP TABLE IF EXISTS signalement CASCADE;
-DROP TABLE IF EXISTS entreprise CASCADE;
-
-DROP TABLE IF EXISTS utilisateur_etat CASCADE;
-DROP TABLE IF EXISTS etat_compte CASCADE;
-DROP TABLE IF EXISTS tentative_connexion CASCADE;
-DROP TABLE IF EXISTS utilisateur_role CASCADE;
-DROP TABLE IF EXISTS role CASCADE;
-DROP TABLE IF EXISTS utilisateur_password CASCADE;
-DROP TABLE IF EXISTS utilisateur_info CASCADE;
-DROP TABLE IF EXISTS utilisateur CASCADE;
-
 -- ============================================================
--- 2. AUTHENTIFICATION / UTILISATEURS
+-- 1. AUTHENTIFICATION / UTILISATEURS
 -- ============================================================
 
 -- Identité utilisateur
@@ -36,9 +18,13 @@ CREATE TABLE utilisateur (
     id_utilisateur UUID PRIMARY KEY,
     email VARCHAR(255) NOT NULL UNIQUE,
     source_auth VARCHAR(20) NOT NULL,
-    date_creation TIMESTAMP NOT NULL DEFAULT NOW()
+    date_creation TIMESTAMP NOT NULL DEFAULT NOW(),
+    firebase_uid VARCHAR(128)
 );
 
+-- Recherche par UID Firebase
+CREATE INDEX idx_utilisateur_firebase_uid ON utilisateur(firebase_uid);
+
 -- Historique informations utilisateur
 CREATE TABLE utilisateur_info (
     id_utilisateur_info BIGSERIAL PRIMARY KEY,
@@ -87,7 +73,7 @@ CREATE TABLE tentative_connexion (
 );
 
 -- ============================================================
--- 3. ETAT DU COMPTE (ACTIF / BLOQUE / INACTIF)
+-- 2. ETAT DU COMPTE (ACTIF / BLOQUE / INACTIF)
 -- ============================================================
 
 -- Types d’état
@@ -112,7 +98,7 @@ CREATE TABLE utilisateur_etat (
 );
 
 -- ============================================================
--- 4. SIGNALEMENT ROUTIER
+-- 3. SIGNALEMENT ROUTIER
 -- ============================================================
 
 -- Signalement (identité)
@@ -163,7 +149,7 @@ CREATE TABLE signalement_detail (
 );
 
 -- ============================================================
--- 5. VUES (LECTURE SEULE)
+-- 4. VUES (LECTURE SEULE)
 -- ============================================================
 
 -- Utilisateurs actifs
@@ -205,7 +191,3 @@ LEFT JOIN signalement_detail d
    AND d.date_fin IS NULL
 LEFT JOIN entreprise e
     ON e.id_entreprise = d.id_entreprise;
-
--- ============================================================
--- FIN DU SCRIPT
--- ============================================================
@@ -0,0 +1,62 @@
+-- ============================================================
+-- V2 : Projection de l'état actuel des signalements (ex signalement-courant.sql)
+-- ============================================================
+-- Une ligne par signalement (statut, surface, budget, entreprise
+-- actuels), maintenue par l'application dans la même transaction
+-- que signalement_statut / signalement_detail.
+-- Idempotente : une base existante (déjà migrée à la main ou non)
+-- obtient une projection reconstruite depuis l'historique.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS signalement_courant (
+    id_signalement UUID PRIMARY KEY REFERENCES signalement(id_signalement),
+    id_statut BIGINT REFERENCES statut_signalement(id_statut),
+    code_statut VARCHAR(20),
+    date_debut_statut TIMESTAMP,
+    surface_m2 DECIMAL(10,2),
+    budget DECIMAL(14,2),
+    id_entreprise BIGINT REFERENCES entreprise(id_entreprise),
+    date_modification TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Reconstruction depuis les lignes ouvertes de l'historique
+-- (équivalent de POST /api/admin/signalements/projection/reconstruire)
+DELETE FROM signalement_courant;
+
+INSERT INTO signalement_courant (id_signalement, id_statut, code_statut, date_debut_statut,
+                                 surface_m2, budget, id_entreprise, date_modification)
+SELECT DISTINCT ON (s.id_signalement)
+    s.id_signalement,
+    ss.id_statut,
+    st.code,
+    ss.date_debut,
+    d.surface_m2,
+    d.budget,
+    d.id_entreprise,
+    GREATEST(s.date_creation, ss.date_debut, d.date_debut)
+FROM signalement s
+LEFT JOIN signalement_statut ss
+    ON ss.id_signalement = s.id_signalement
+   AND ss.date_fin IS NULL
+LEFT JOIN statut_signalement st
+    ON st.id_statut = ss.id_statut
+LEFT JOIN signalement_detail d
+    ON d.id_signalement = s.id_signalement
+   AND d.date_fin IS NULL
+ORDER BY s.id_signalement, ss.date_debut DESC NULLS LAST, d.date_debut DESC NULLS LAST;
+
+-- La vue des signalements courants lit désormais la projection
+CREATE OR REPLACE VIEW v_signalement_actuel AS
+SELECT
+    s.id_signalement,
+    s.latitude,
+    s.longitude,
+    c.code_statut AS statut,
+    c.surface_m2,
+    c.budget,
+    e.nom AS entreprise
+FROM signalement s
+JOIN signalement_courant c
+    ON c.id_signalement = s.id_signalement
+LEFT JOIN entreprise e
+    ON e.id_entreprise = c.id_entreprise;
@@ -0,0 +1,11 @@
+-- ============================================================
+-- V3 : Séquences par blocs pour l'insertion en batch (ex signalement-batch.sql)
+-- ============================================================
+-- signalement_statut et signalement_detail passent de IDENTITY à
+-- des séquences pooled (allocationSize = 50 côté Hibernate) :
+-- l'incrément de la séquence doit correspondre, sinon l'application
+-- refuse de démarrer.
+-- ============================================================
+
+ALTER SEQUENCE signalement_statut_id_signalement_statut_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_detail_id_detail_seq INCREMENT BY 50;
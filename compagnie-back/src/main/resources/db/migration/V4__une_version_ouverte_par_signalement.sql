@@ -0,0 +1,47 @@
+-- ============================================================
+-- V4 : Mises à jour concurrentes d'un signalement (ex signalement-concurrence.sql)
+-- ============================================================
+-- - Au plus une ligne ouverte (date_fin IS NULL) par signalement
+--   dans signalement_statut et signalement_detail (index uniques
+--   partiels) : un écrivain concurrent échoue et recommence au lieu
+--   de laisser deux versions ouvertes dans l'historique.
+-- - Colonne version sur signalement_courant (verrou optimiste).
+-- Idempotente (base existante déjà migrée à la main ou non)
+-- ============================================================
+
+-- Clore les doublons ouverts existants (la version la plus récente reste ouverte)
+WITH doublons AS (
+    SELECT id_signalement_statut,
+           MAX(date_debut) OVER (PARTITION BY id_signalement) AS date_max,
+           ROW_NUMBER() OVER (PARTITION BY id_signalement
+                              ORDER BY date_debut DESC, id_signalement_statut DESC) AS rang
+    FROM signalement_statut
+    WHERE date_fin IS NULL
+)
+UPDATE signalement_statut ss
+SET date_fin = d.date_max
+FROM doublons d
+WHERE ss.id_signalement_statut = d.id_signalement_statut
+  AND d.rang > 1;
+
+WITH doublons AS (
+    SELECT id_detail,
+           MAX(date_debut) OVER (PARTITION BY id_signalement) AS date_max,
+           ROW_NUMBER() OVER (PARTITION BY id_signalement
+                              ORDER BY date_debut DESC, id_detail DESC) AS rang
+    FROM signalement_detail
+    WHERE date_fin IS NULL
+)
+UPDATE signalement_detail sd
+SET date_fin = d.date_max
+FROM doublons d
+WHERE sd.id_detail = d.id_detail
+  AND d.rang > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_signalement_statut_ouvert
+    ON signalement_statut (id_signalement) WHERE date_fin IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_signalement_detail_ouvert
+    ON signalement_detail (id_signalement) WHERE date_fin IS NULL;
+
+ALTER TABLE signalement_courant ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,38 @@
+-- ============================================================
+-- V5 : Index des requêtes les plus fréquentes
+-- ============================================================
+-- Lignes ouvertes des tables historisées (date_fin IS NULL),
+-- historique d'un signalement, tentatives de connexion récentes,
+-- pagination par date de création. Vérifiés sur un jeu de données
+-- volumineux par SchemaIndexPlanTest (-Dbenchmark=true).
+-- signalement_statut / signalement_detail (id_signalement) WHERE
+-- date_fin IS NULL : index uniques partiels de V4.
+-- ============================================================
+
+-- Version ouverte d'un utilisateur (connexion, profil, rôles)
+CREATE INDEX IF NOT EXISTS idx_utilisateur_etat_ouvert
+    ON utilisateur_etat (id_utilisateur) WHERE date_fin IS NULL;
+CREATE INDEX IF NOT EXISTS idx_utilisateur_info_ouvert
+    ON utilisateur_info (id_utilisateur) WHERE date_fin IS NULL;
+CREATE INDEX IF NOT EXISTS idx_utilisateur_password_ouvert
+    ON utilisateur_password (id_utilisateur) WHERE date_fin IS NULL;
+CREATE INDEX IF NOT EXISTS idx_utilisateur_role_ouvert
+    ON utilisateur_role (id_utilisateur) WHERE date_fin IS NULL;
+
+-- Tentatives récentes d'un utilisateur (blocage après échecs consécutifs)
+CREATE INDEX IF NOT EXISTS idx_tentative_connexion_utilisateur_date
+    ON tentative_connexion (id_utilisateur, date_tentative DESC);
+
+-- Historique complet d'un signalement (GET /api/signalements/{id}/historique)
+CREATE INDEX IF NOT EXISTS idx_signalement_statut_signalement_date
+    ON signalement_statut (id_signalement, date_debut DESC);
+CREATE INDEX IF NOT EXISTS idx_signalement_detail_signalement_date
+    ON signalement_detail (id_signalement, date_debut DESC);
+
+-- Listes triées et pagination par curseur (date_creation DESC, id_signalement DESC)
+CREATE INDEX IF NOT EXISTS idx_signalement_date_creation
+    ON signalement (date_creation DESC, id_signalement DESC);
+
+-- Signalements d'un utilisateur, doublons de l'import Firestore (utilisateur + position)
+CREATE INDEX IF NOT EXISTS idx_signalement_utilisateur_position
+    ON signalement (id_utilisateur, latitude, longitude);
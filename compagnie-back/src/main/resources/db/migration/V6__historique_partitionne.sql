@@ -0,0 +1,224 @@
+-- ============================================================
+-- V6 : Tables d'historique partitionnées par mois
+-- ============================================================
+-- signalement_statut, signalement_detail, utilisateur_etat :
+--   partitionnées par date_fin. Les lignes ouvertes (date_fin IS NULL)
+--   sont dans la partition par défaut <table>_ouvert (partition chaude) :
+--   les lectures de l'état actuel n'accèdent qu'à elle. Une ligne close
+--   passe dans la partition du mois de sa clôture.
+-- tentative_connexion : partitionnée par date_tentative.
+-- Partitions mensuelles créées à l'avance, partitions au-delà de
+-- l'horizon de rétention déplacées vers <table>_archive
+-- (HistoriquePartitionService, fonctions ci-dessous).
+-- Les données existantes sont recopiées (<table>_ancien pour tout ce
+-- qui précède le mois courant).
+-- ============================================================
+
+-- ------------------------------------------------------------
+-- 1. Fonctions de maintenance
+-- ------------------------------------------------------------
+
+-- Partitions <table>_AAAA_MM du mois courant et des p_mois_avance mois suivants
+CREATE OR REPLACE FUNCTION creer_partitions_mensuelles(p_table TEXT, p_mois_avance INT)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+    v_mois DATE := date_trunc('month', now())::date;
+    v_nom TEXT;
+    v_creees INT := 0;
+BEGIN
+    FOR i IN 0..p_mois_avance LOOP
+        v_nom := p_table || '_' || to_char(v_mois, 'YYYY_MM');
+        IF to_regclass(v_nom) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           v_nom, p_table, v_mois, (v_mois + INTERVAL '1 month')::date);
+            v_creees := v_creees + 1;
+        END IF;
+        v_mois := (v_mois + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN v_creees;
+END $$;
+
+-- Déplacer vers <table>_archive les partitions dont la borne haute est <= p_avant
+-- (détacher / rattacher : aucune ligne recopiée)
+CREATE OR REPLACE FUNCTION archiver_partitions(p_table TEXT, p_avant TIMESTAMP)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+    v_partition RECORD;
+    v_fin TIMESTAMP;
+    v_archivees INT := 0;
+BEGIN
+    FOR v_partition IN
+        SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bornes
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = p_table::regclass
+    LOOP
+        -- Partition par défaut (lignes ouvertes) : pas de borne, jamais archivée
+        v_fin := substring(v_partition.bornes FROM $r$TO \('([^']+)'\)$r$)::timestamp;
+        IF v_fin IS NOT NULL AND v_fin <= p_avant THEN
+            EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', p_table, v_partition.relname);
+            EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I %s',
+                           p_table || '_archive', v_partition.relname, v_partition.bornes);
+            v_archivees := v_archivees + 1;
+        END IF;
+    END LOOP;
+    RETURN v_archivees;
+END $$;
+
+-- ------------------------------------------------------------
+-- 2. Anciennes tables mises de côté
+-- ------------------------------------------------------------
+
+DROP VIEW IF EXISTS v_utilisateur_actif;
+
+ALTER TABLE signalement_statut RENAME TO signalement_statut_v5;
+ALTER TABLE signalement_detail RENAME TO signalement_detail_v5;
+ALTER TABLE utilisateur_etat RENAME TO utilisateur_etat_v5;
+ALTER TABLE tentative_connexion RENAME TO tentative_connexion_v5;
+
+-- ------------------------------------------------------------
+-- 3. Tables partitionnées (clé primaire impossible sur date_fin,
+--    nullable : index sur l'identifiant, cf. section 6)
+-- ------------------------------------------------------------
+
+CREATE TABLE signalement_statut (
+    id_signalement_statut BIGINT NOT NULL DEFAULT nextval('signalement_statut_id_signalement_statut_seq'),
+    id_signalement UUID NOT NULL REFERENCES signalement(id_signalement),
+    id_statut BIGINT NOT NULL REFERENCES statut_signalement(id_statut),
+    date_debut TIMESTAMP NOT NULL DEFAULT NOW(),
+    date_fin TIMESTAMP
+) PARTITION BY RANGE (date_fin);
+
+CREATE TABLE signalement_detail (
+    id_detail BIGINT NOT NULL DEFAULT nextval('signalement_detail_id_detail_seq'),
+    id_signalement UUID NOT NULL REFERENCES signalement(id_signalement),
+    surface_m2 DECIMAL(10,2),
+    budget DECIMAL(14,2),
+    id_entreprise BIGINT REFERENCES entreprise(id_entreprise),
+    date_debut TIMESTAMP NOT NULL DEFAULT NOW(),
+    date_fin TIMESTAMP
+) PARTITION BY RANGE (date_fin);
+
+CREATE TABLE utilisateur_etat (
+    id_utilisateur_etat BIGINT NOT NULL DEFAULT nextval('utilisateur_etat_id_utilisateur_etat_seq'),
+    id_utilisateur UUID NOT NULL REFERENCES utilisateur(id_utilisateur),
+    id_etat BIGINT NOT NULL REFERENCES etat_compte(id_etat),
+    raison VARCHAR(255),
+    date_debut TIMESTAMP NOT NULL DEFAULT NOW(),
+    date_fin TIMESTAMP
+) PARTITION BY RANGE (date_fin);
+
+CREATE TABLE tentative_connexion (
+    id_tentative BIGINT NOT NULL DEFAULT nextval('tentative_connexion_id_tentative_seq'),
+    id_utilisateur UUID REFERENCES utilisateur(id_utilisateur),
+    date_tentative TIMESTAMP NOT NULL DEFAULT NOW(),
+    succes BOOLEAN NOT NULL,
+    PRIMARY KEY (id_tentative, date_tentative)
+) PARTITION BY RANGE (date_tentative);
+
+-- Partitions chaudes : uniquement des lignes ouvertes (la contrainte évite aussi
+-- de parcourir la partition par défaut à chaque création de partition mensuelle)
+CREATE TABLE signalement_statut_ouvert PARTITION OF signalement_statut
+    (CONSTRAINT ck_signalement_statut_ouvert CHECK (date_fin IS NULL)) DEFAULT;
+CREATE TABLE signalement_detail_ouvert PARTITION OF signalement_detail
+    (CONSTRAINT ck_signalement_detail_ouvert CHECK (date_fin IS NULL)) DEFAULT;
+CREATE TABLE utilisateur_etat_ouvert PARTITION OF utilisateur_etat
+    (CONSTRAINT ck_utilisateur_etat_ouvert CHECK (date_fin IS NULL)) DEFAULT;
+
+-- Historique antérieur au mois courant, puis partitions mensuelles
+DO $$
+DECLARE
+    v_table TEXT;
+BEGIN
+    FOREACH v_table IN ARRAY ARRAY['signalement_statut', 'signalement_detail',
+                                   'utilisateur_etat', 'tentative_connexion'] LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (MINVALUE) TO (%L)',
+                       v_table || '_ancien', v_table, date_trunc('month', now())::date);
+        PERFORM creer_partitions_mensuelles(v_table, 3);
+    END LOOP;
+END $$;
+
+-- ------------------------------------------------------------
+-- 4. Recopie des données
+-- ------------------------------------------------------------
+
+INSERT INTO signalement_statut (id_signalement_statut, id_signalement, id_statut, date_debut, date_fin)
+SELECT id_signalement_statut, id_signalement, id_statut, date_debut, date_fin
+FROM signalement_statut_v5;
+
+INSERT INTO signalement_detail (id_detail, id_signalement, surface_m2, budget, id_entreprise, date_debut, date_fin)
+SELECT id_detail, id_signalement, surface_m2, budget, id_entreprise, date_debut, date_fin
+FROM signalement_detail_v5;
+
+INSERT INTO utilisateur_etat (id_utilisateur_etat, id_utilisateur, id_etat, raison, date_debut, date_fin)
+SELECT id_utilisateur_etat, id_utilisateur, id_etat, raison, date_debut, date_fin
+FROM utilisateur_etat_v5;
+
+INSERT INTO tentative_connexion (id_tentative, id_utilisateur, date_tentative, succes)
+SELECT id_tentative, id_utilisateur, date_tentative, succes
+FROM tentative_connexion_v5;
+
+-- ------------------------------------------------------------
+-- 5. Séquences rattachées aux nouvelles colonnes, anciennes tables supprimées
+-- ------------------------------------------------------------
+
+ALTER SEQUENCE signalement_statut_id_signalement_statut_seq OWNED BY signalement_statut.id_signalement_statut;
+ALTER SEQUENCE signalement_detail_id_detail_seq OWNED BY signalement_detail.id_detail;
+ALTER SEQUENCE utilisateur_etat_id_utilisateur_etat_seq OWNED BY utilisateur_etat.id_utilisateur_etat;
+ALTER SEQUENCE tentative_connexion_id_tentative_seq OWNED BY tentative_connexion.id_tentative;
+
+DROP TABLE signalement_statut_v5;
+DROP TABLE signalement_detail_v5;
+DROP TABLE utilisateur_etat_v5;
+DROP TABLE tentative_connexion_v5;
+
+-- ------------------------------------------------------------
+-- 6. Index (V4, V5) : sur la table partitionnée, ou sur la seule
+--    partition chaude pour les lignes ouvertes
+-- ------------------------------------------------------------
+
+CREATE INDEX idx_signalement_statut_id ON signalement_statut (id_signalement_statut);
+CREATE INDEX idx_signalement_detail_id ON signalement_detail (id_detail);
+CREATE INDEX idx_utilisateur_etat_id ON utilisateur_etat (id_utilisateur_etat);
+
+-- Au plus une ligne ouverte par signalement (V4)
+CREATE UNIQUE INDEX ux_signalement_statut_ouvert ON signalement_statut_ouvert (id_signalement);
+CREATE UNIQUE INDEX ux_signalement_detail_ouvert ON signalement_detail_ouvert (id_signalement);
+CREATE INDEX idx_utilisateur_etat_ouvert ON utilisateur_etat_ouvert (id_utilisateur);
+
+CREATE INDEX idx_signalement_statut_signalement_date
+    ON signalement_statut (id_signalement, date_debut DESC);
+CREATE INDEX idx_signalement_detail_signalement_date
+    ON signalement_detail (id_signalement, date_debut DESC);
+CREATE INDEX idx_tentative_connexion_utilisateur_date
+    ON tentative_connexion (id_utilisateur, date_tentative DESC);
+
+-- ------------------------------------------------------------
+-- 7. Tables d'archive (mêmes colonnes, mêmes clés de partition)
+-- ------------------------------------------------------------
+
+CREATE TABLE signalement_statut_archive (LIKE signalement_statut) PARTITION BY RANGE (date_fin);
+CREATE TABLE signalement_detail_archive (LIKE signalement_detail) PARTITION BY RANGE (date_fin);
+CREATE TABLE utilisateur_etat_archive (LIKE utilisateur_etat) PARTITION BY RANGE (date_fin);
+CREATE TABLE tentative_connexion_archive (LIKE tentative_connexion) PARTITION BY RANGE (date_tentative);
+
+-- ------------------------------------------------------------
+-- 8. Vue V1 recréée
+-- ------------------------------------------------------------
+
+CREATE VIEW v_utilisateur_actif AS
+SELECT
+    u.id_utilisateur,
+    u.email,
+    ui.nom,
+    ui.prenom
+FROM utilisateur u
+JOIN utilisateur_info ui
+    ON ui.id_utilisateur = u.id_utilisateur
+   AND ui.date_fin IS NULL
+JOIN utilisateur_etat ue
+    ON ue.id_utilisateur = u.id_utilisateur
+   AND ue.date_fin IS NULL
+JOIN etat_compte ec
+    ON ec.id_etat = ue.id_etat
+WHERE ec.code = 'ACTIF';
@@ -0,0 +1,24 @@
+-- ============================================================
+-- V7 : Description des signalements et recherche plein texte
+-- ============================================================
+-- Configuration francais_sans_accent : racinisation française après
+-- suppression des accents (« chaussée » = « chaussee », « poules » =
+-- « poule »). Vecteur calculé par PostgreSQL (colonne générée) et
+-- indexé en GIN : GET /api/signalements/search?q=...
+-- unaccent est une extension « trusted » : le propriétaire de la base
+-- peut la créer sans être superutilisateur.
+-- ============================================================
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE TEXT SEARCH CONFIGURATION francais_sans_accent (COPY = french);
+ALTER TEXT SEARCH CONFIGURATION francais_sans_accent
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, french_stem;
+
+ALTER TABLE signalement ADD COLUMN description TEXT;
+
+ALTER TABLE signalement ADD COLUMN description_recherche TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('francais_sans_accent', COALESCE(description, ''))) STORED;
+
+CREATE INDEX idx_signalement_description_recherche
+    ON signalement USING GIN (description_recherche);
@@ -0,0 +1,12 @@
+-- ============================================================
+-- V8 : Doublons par proximité
+-- ============================================================
+-- Signalement créé à moins de signalement.doublons.rayon-metres d'un
+-- signalement ouvert : conservé, marqué id_doublon_de (le plus proche).
+-- ============================================================
+
+ALTER TABLE signalement ADD COLUMN id_doublon_de UUID REFERENCES signalement(id_signalement);
+
+-- Doublons d'un signalement (peu de lignes marquées : index partiel)
+CREATE INDEX idx_signalement_doublon_de
+    ON signalement (id_doublon_de) WHERE id_doublon_de IS NOT NULL;
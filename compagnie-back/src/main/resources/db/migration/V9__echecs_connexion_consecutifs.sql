@@ -0,0 +1,30 @@
+-- ============================================================
+-- V9 : Compteur d'échecs de connexion consécutifs
+-- ============================================================
+-- Incrémenté atomiquement à chaque échec (UPDATE ... RETURNING),
+-- remis à zéro au succès et au déblocage : la connexion ne relit
+-- plus l'historique tentative_connexion (conservé pour l'audit).
+-- ============================================================
+
+ALTER TABLE utilisateur ADD COLUMN echecs_consecutifs INT NOT NULL DEFAULT 0;
+
+-- Reprise : échecs postérieurs au dernier succès et au début de l'état
+-- actuel (un compte débloqué repart de zéro)
+UPDATE utilisateur u
+SET echecs_consecutifs = e.echecs
+FROM (
+    SELECT t.id_utilisateur, COUNT(*) AS echecs
+    FROM tentative_connexion t
+    JOIN utilisateur_etat ue
+      ON ue.id_utilisateur = t.id_utilisateur
+     AND ue.date_fin IS NULL
+    WHERE t.succes = FALSE
+      AND t.date_tentative >= ue.date_debut
+      AND NOT EXISTS (
+          SELECT 1 FROM tentative_connexion s
+          WHERE s.id_utilisateur = t.id_utilisateur
+            AND s.succes = TRUE
+            AND s.date_tentative > t.date_tentative)
+    GROUP BY t.id_utilisateur
+) e
+WHERE e.id_utilisateur = u.id_utilisateur;
@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.AuthResponse;
+import com.example.demo.DTO.InscriptionRequest;
+import com.example.demo.DTO.LoginRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latence et nombre de requêtes SQL d'une connexion réussie (BCrypt au coût minimal : seule la base compte)
+ * Nécessite une base PostgreSQL (schéma migré par Flyway au démarrage) :
+ * mvn test -Dtest=ConnexionBenchmarkTest -Dbenchmark=true -Dspring.datasource.url=jdbc:postgresql://...
+ */
+@SpringBootTest(properties = {
+        "auth.bcrypt.cout=4",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConnexionBenchmarkTest {
+
+    private static final int NOMBRE = 500;
+    private static final String PASSWORD = "MotDePasse123!";
+
+    @Autowired
+    private AuthentificationService authentificationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String email = "benchmark-" + UUID.randomUUID() + "@test.mg";
+
+    @Test
+    void mesurerConnexion() {
+        AuthResponse inscription = authentificationService.inscrire(
+                new InscriptionRequest(email, PASSWORD, "Benchmark", "Connexion"));
+        assertThat(inscription.isSuccess()).isTrue();
+
+        LoginRequest login = new LoginRequest(email, PASSWORD);
+        for (int i = 0; i < 50; i++) {
+            authentificationService.connecter(login); // chauffe
+        }
+
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistiques.clear();
+        long[] durees = new long[NOMBRE];
+        for (int i = 0; i < NOMBRE; i++) {
+            long debut = System.nanoTime();
+            AuthResponse response = authentificationService.connecter(login);
+            durees[i] = System.nanoTime() - debut;
+            assertThat(response.isSuccess()).isTrue();
+            assertThat(response.getUtilisateur().getRoles()).containsExactly("USER");
+        }
+        long requetes = statistiques.getPrepareStatementCount();
+
+        Arrays.sort(durees);
+        System.out.printf("Connexion : %.1f requêtes SQL, moyenne %.2f ms, médiane %.2f ms, p95 %.2f ms%n",
+                (double) requetes / NOMBRE,
+                Arrays.stream(durees).average().orElse(0) / 1_000_000.0,
+                durees[NOMBRE / 2] / 1_000_000.0,
+                durees[NOMBRE * 95 / 100] / 1_000_000.0);
+    }
+
+    @AfterEach
+    void nettoyer() throws InterruptedException {
+        UUID id = jdbcTemplate.query("SELECT id_utilisateur FROM utilisateur WHERE email = ?",
+                rs -> rs.next() ? rs.getObject(1, UUID.class) : null, email);
+        if (id == null) {
+            return;
+        }
+        // Tentatives journalisées en arrière-plan : attendre leur écriture (chauffe + mesure)
+        long limite = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < limite && jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tentative_connexion WHERE id_utilisateur = ?", Long.class, id) < 50 + NOMBRE) {
+            Thread.sleep(50);
+        }
+        for (String table : new String[]{"tentative_connexion", "utilisateur_password", "utilisateur_role",
+                "utilisateur_etat", "utilisateur_info", "utilisateur"}) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE id_utilisateur = ?", id);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.HistoriqueVersionView;
+import com.example.demo.repository.SignalementRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clôture sans partition mensuelle et historique après archivage (migrations V6, V10, V12)
+ * Scénario exécuté puis annulé dans une seule transaction (partitions détachées comprises).
+ * Nécessite une base PostgreSQL (schéma migré par Flyway au démarrage) :
+ * mvn test -Dtest=HistoriquePartitionServiceTest -Dbenchmark=true -Dspring.datasource.url=jdbc:postgresql://...
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HistoriquePartitionServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Test
+    void clotureHorsPartitionPuisArchivageGardentLHistoriqueComplet() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(statut -> {
+            statut.setRollbackOnly();
+            UUID id = UUID.randomUUID();
+            Long nouveau = jdbcTemplate.queryForObject(
+                    "SELECT id_statut FROM statut_signalement WHERE code = 'NOUVEAU'", Long.class);
+            jdbcTemplate.update("INSERT INTO signalement (id_signalement, latitude, longitude, source, date_creation) " +
+                    "VALUES (?, -18.9, 47.5, 'WEB', ?)", id, LocalDateTime.now().minusMonths(2));
+
+            // Version close ce mois-ci (partition mensuelle), puis une close dans un mois sans partition
+            LocalDateTime lointain = LocalDateTime.now().plusYears(4);
+            inserer(id, nouveau, LocalDateTime.now().minusMonths(2), LocalDateTime.now());
+            inserer(id, nouveau, LocalDateTime.now(), lointain);
+            inserer(id, nouveau, lointain, null);
+            assertThat(compter("signalement_statut_ouvert", id)).isEqualTo(2);
+
+            // Partition du mois lointain créée : la ligne close quitte la partition par défaut
+            jdbcTemplate.queryForObject("SELECT creer_partitions_mensuelles('signalement_statut', 60)", Integer.class);
+            assertThat(compter("signalement_statut_ouvert", id)).isEqualTo(1);
+
+            // Partitions jusqu'au mois prochain archivées : l'historique reste complet
+            jdbcTemplate.queryForObject("SELECT archiver_partitions('signalement_statut', ?)", Integer.class,
+                    LocalDateTime.now().withDayOfMonth(1).toLocalDate().plusMonths(1).atStartOfDay());
+            assertThat(compter("signalement_statut_archive", id)).isEqualTo(1);
+
+            List<HistoriqueVersionView> historique = signalementRepository.findPremierePageHistorique(id, 10);
+            assertThat(historique).extracting(HistoriqueVersionView::getType).containsOnly("STATUT").hasSize(3);
+        });
+    }
+
+    private void inserer(UUID id, Long idStatut, LocalDateTime debut, LocalDateTime fin) {
+        jdbcTemplate.update("INSERT INTO signalement_statut (id_signalement, id_statut, date_debut, date_fin) " +
+                "VALUES (?, ?, ?, ?)", id, idStatut, debut, fin);
+    }
+
+    private Integer compter(String table, UUID id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE id_signalement = ?",
+                Integer.class, id);
+    }
+}
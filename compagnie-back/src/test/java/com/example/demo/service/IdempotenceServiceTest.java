@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotenceServiceTest {
+
+    private IdempotenceService service;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotenceService();
+        ReflectionTestUtils.setField(service, "tailleMax", 3);
+        ReflectionTestUtils.setField(service, "dureeMinutes", 60L);
+        ReflectionTestUtils.setField(service, "attenteSecondes", 5L);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void renvoiRejoueLaReponseSansReexecuter() {
+        IdempotenceService.Resultat<Integer> premier = service.executer("cle", "requete", executions::incrementAndGet);
+        IdempotenceService.Resultat<Integer> renvoi = service.executer("cle", "requete", executions::incrementAndGet);
+
+        assertThat(premier.rejoue()).isFalse();
+        assertThat(renvoi.rejoue()).isTrue();
+        assertThat(renvoi.valeur()).isEqualTo(1);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void sansCleToujoursExecute() {
+        service.executer(null, "requete", executions::incrementAndGet);
+        service.executer(" ", "requete", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(2);
+        assertThat(service.taille()).isZero();
+    }
+
+    @Test
+    void cleReutiliseePourUneAutreRequete() {
+        service.executer("cle", "requete", executions::incrementAndGet);
+
+        assertThatThrownBy(() -> service.executer("cle", "autre", executions::incrementAndGet))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void doublonConcurrentAttendLOriginal() throws Exception {
+        CountDownLatch demarre = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+
+        CompletableFuture<IdempotenceService.Resultat<Integer>> original = CompletableFuture.supplyAsync(() ->
+                service.executer("cle", "requete", () -> {
+                    demarre.countDown();
+                    attendre(liberer);
+                    return executions.incrementAndGet();
+                }));
+        assertThat(demarre.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<IdempotenceService.Resultat<Integer>> doublon = CompletableFuture.supplyAsync(() ->
+                service.executer("cle", "requete", executions::incrementAndGet));
+        Thread.sleep(100);
+        assertThat(doublon).isNotDone();
+
+        liberer.countDown();
+        assertThat(original.get(5, TimeUnit.SECONDS).rejoue()).isFalse();
+        assertThat(doublon.get(5, TimeUnit.SECONDS).rejoue()).isTrue();
+        assertThat(doublon.get().valeur()).isEqualTo(1);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void echecNonMemorise() {
+        assertThatThrownBy(() -> service.executer("cle", "requete", () -> {
+            throw new RuntimeException("base indisponible");
+        })).hasMessage("base indisponible");
+
+        IdempotenceService.Resultat<Integer> renvoi = service.executer("cle", "requete", executions::incrementAndGet);
+        assertThat(renvoi.rejoue()).isFalse();
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void magasinBorne() {
+        for (int i = 0; i < 10; i++) {
+            service.executer("cle-" + i, "requete", executions::incrementAndGet);
+        }
+        assertThat(service.taille()).isLessThanOrEqualTo(3);
+
+        // Les clés les plus récentes sont conservées
+        assertThat(service.executer("cle-9", "requete", executions::incrementAndGet).rejoue()).isTrue();
+    }
+
+    @Test
+    void entreeExpireeReexecutee() {
+        ReflectionTestUtils.setField(service, "dureeMinutes", 0L);
+        service.executer("cle", "requete", executions::incrementAndGet);
+        service.executer("cle", "requete", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    private static void attendre(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.UtilisateurResponse;
+import com.example.demo.event.CompteEtatEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JetonServiceTest {
+
+    private JetonService jetonService;
+    private UtilisateurResponse utilisateur;
+
+    @BeforeEach
+    void setUp() {
+        jetonService = demarrer(15, Base64.getEncoder().encodeToString(new byte[32]));
+        utilisateur = new UtilisateurResponse();
+        utilisateur.setIdUtilisateur(UUID.randomUUID());
+        utilisateur.setRoles(List.of("ADMIN", "USER"));
+        utilisateur.setEtat("ACTIF");
+    }
+
+    @Test
+    void jetonEmisEstVerifieSansBase() {
+        JetonService.Jetons jetons = jetonService.emettre(utilisateur, jetonService.marque());
+
+        JetonService.JetonVerifie verifie = jetonService.verifier(jetons.acces(), JetonService.ACCES).orElseThrow();
+        assertThat(verifie.idUtilisateur()).isEqualTo(utilisateur.getIdUtilisateur());
+        assertThat(verifie.roles()).containsExactly("ADMIN", "USER");
+        assertThat(verifie.etat()).isEqualTo("ACTIF");
+        assertThat(jetons.dureeAccesSecondes()).isEqualTo(900);
+    }
+
+    @Test
+    void jetonAltereOuDuMauvaisTypeRefuse() {
+        JetonService.Jetons jetons = jetonService.emettre(utilisateur, jetonService.marque());
+        String[] parties = jetons.acces().split("\\.");
+        String contenuModifie = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                new String(Base64.getUrlDecoder().decode(parties[1])).replace("ACTIF", "BLOQUE").getBytes());
+
+        assertThat(jetonService.verifier(parties[0] + "." + contenuModifie + "." + parties[2], JetonService.ACCES))
+                .isEmpty();
+        assertThat(jetonService.verifier(jetons.acces(), JetonService.RAFRAICHISSEMENT)).isEmpty();
+        assertThat(jetonService.verifier(jetons.rafraichissement(), JetonService.ACCES)).isEmpty();
+        assertThat(jetonService.verifier("pas.un.jeton", JetonService.ACCES)).isEmpty();
+
+        // Autre clé : signature invalide
+        byte[] autreCle = new byte[32];
+        autreCle[0] = 1;
+        JetonService autre = demarrer(15, Base64.getEncoder().encodeToString(autreCle));
+        assertThat(autre.verifier(jetons.acces(), JetonService.ACCES)).isEmpty();
+    }
+
+    @Test
+    void jetonExpireRefuse() {
+        JetonService expire = demarrer(-1, Base64.getEncoder().encodeToString(new byte[32]));
+        assertThat(expire.verifier(expire.emettre(utilisateur, expire.marque()).acces(), JetonService.ACCES)).isEmpty();
+    }
+
+    @Test
+    void revocationRefuseLesJetonsAnterieursSeulement() {
+        JetonService.Jetons avant = jetonService.emettre(utilisateur, jetonService.marque());
+        jetonService.revoquer(utilisateur.getIdUtilisateur());
+
+        assertThat(jetonService.verifier(avant.acces(), JetonService.ACCES)).isEmpty();
+        assertThat(jetonService.verifier(avant.rafraichissement(), JetonService.RAFRAICHISSEMENT)).isEmpty();
+
+        JetonService.Jetons apres = jetonService.emettre(utilisateur, jetonService.marque());
+        assertThat(jetonService.verifier(apres.acces(), JetonService.ACCES)).isPresent();
+
+        // Deux révocations rapprochées : la seconde invalide aussi ce qui a été émis entre les deux
+        jetonService.revoquer(utilisateur.getIdUtilisateur());
+        assertThat(jetonService.verifier(apres.acces(), JetonService.ACCES)).isEmpty();
+    }
+
+    @Test
+    void revocationEntreLectureEtEmissionRefuseLeJeton() {
+        // Connexion : marque prise, état ACTIF lu, puis blocage validé avant l'émission
+        long marque = jetonService.marque();
+        jetonService.onCompteEtatEvent(new CompteEtatEvent(this, utilisateur.getIdUtilisateur(), "BLOQUE"));
+        JetonService.Jetons jetons = jetonService.emettre(utilisateur, marque);
+
+        assertThat(jetonService.verifier(jetons.acces(), JetonService.ACCES)).isEmpty();
+        assertThat(jetonService.verifier(jetons.rafraichissement(), JetonService.RAFRAICHISSEMENT)).isEmpty();
+    }
+
+    /**
+     * Mesure (hors suite par défaut) : mvn test -Dtest=JetonServiceTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void mesurerVerification() {
+        String jeton = jetonService.emettre(utilisateur, jetonService.marque()).acces();
+        for (int i = 0; i < 20_000; i++) {
+            jetonService.verifier(jeton, JetonService.ACCES); // chauffe
+        }
+
+        int nombre = 100_000;
+        long debut = System.nanoTime();
+        for (int i = 0; i < nombre; i++) {
+            assertThat(jetonService.verifier(jeton, JetonService.ACCES)).isPresent();
+        }
+        double nanos = (double) (System.nanoTime() - debut) / nombre;
+        System.out.printf("Vérification d'un jeton d'accès : %.0f ns%n", nanos);
+    }
+
+    private JetonService demarrer(long dureeAccesMinutes, String secret) {
+        JetonService service = new JetonService();
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "dureeAccesMinutes", dureeAccesMinutes);
+        ReflectionTestUtils.setField(service, "dureeRafraichissementJours", 7L);
+        service.demarrer();
+        return service;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.TentativeConnexion;
+import com.example.demo.repository.TentativeConnexionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JournalConnexionServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TentativeConnexionRepository tentativeConnexionRepository = mock(TentativeConnexionRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Taille de chaque lot écrit
+    private final List<Integer> lots = new CopyOnWriteArrayList<>();
+
+    private JournalConnexionService journal;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        journal.arreter();
+    }
+
+    @Test
+    void lotCompletEcritSansAttendreLIntervalle() throws InterruptedException {
+        journal = demarrer(1000, 50, 60_000, "ignorer");
+
+        for (int i = 0; i < 120; i++) {
+            journal.enregistrer(i % 2 == 0 ? null : UUID.randomUUID(), false);
+        }
+        attendre(() -> assertThat(lots).containsExactly(50, 50));
+        verify(tentativeConnexionRepository, never()).save(any());
+
+        // Le reste est écrit à l'arrêt
+        journal.arreter();
+        assertThat(lots).containsExactly(50, 50, 20);
+        assertThat(meterRegistry.counter("auth.tentatives.ecrites").count()).isEqualTo(120);
+    }
+
+    @Test
+    void lotPartielEcritApresLIntervalle() throws InterruptedException {
+        journal = demarrer(1000, 500, 50, "ignorer");
+
+        journal.enregistrer(UUID.randomUUID(), true);
+        journal.enregistrer(null, false);
+        journal.enregistrer(UUID.randomUUID(), false);
+
+        attendre(() -> assertThat(lots).containsExactly(3));
+        assertThat(journal.profondeur()).isZero();
+    }
+
+    @Test
+    void filePleineIgnoreeOuEcriteSelonLaConfiguration() {
+        journal = demarrer(2, 500, 60_000, "ignorer");
+        for (int i = 0; i < 5; i++) {
+            journal.enregistrer(null, false);
+        }
+        assertThat(journal.profondeur()).isEqualTo(2);
+        assertThat(meterRegistry.counter("auth.tentatives.perdues").count()).isEqualTo(3);
+
+        ReflectionTestUtils.setField(journal, "siPleine", "synchrone");
+        journal.enregistrer(null, false);
+        verify(tentativeConnexionRepository, times(1)).save(any(TentativeConnexion.class));
+    }
+
+    private void attendre(Runnable verification) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (true) {
+            try {
+                verification.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.currentTimeMillis() > limite) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private JournalConnexionService demarrer(int capacite, int tailleLot, long intervalleMs, String siPleine) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<?> lignes = invocation.getArgument(1);
+            lots.add(lignes.size());
+            return new int[lignes.size()];
+        });
+        JournalConnexionService service = new JournalConnexionService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "tentativeConnexionRepository", tentativeConnexionRepository);
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "asynchrone", true);
+        ReflectionTestUtils.setField(service, "capacite", capacite);
+        ReflectionTestUtils.setField(service, "tailleLot", tailleLot);
+        ReflectionTestUtils.setField(service, "intervalleMs", intervalleMs);
+        ReflectionTestUtils.setField(service, "siPleine", siPleine);
+        ReflectionTestUtils.setField(service, "arretSecondes", 5L);
+        service.demarrer();
+        return service;
+    }
+}
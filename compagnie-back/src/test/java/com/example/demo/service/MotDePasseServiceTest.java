@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MotDePasseServiceTest {
+
+    private MotDePasseService service;
+
+    @AfterEach
+    void tearDown() {
+        service.arreter();
+    }
+
+    @Test
+    void hashDunAutreCoutVerifieEtARehacher() {
+        service = demarrer(4, 1000, 4, 8, 1, 8);
+
+        String hashCourant = service.hacher("secret");
+        String hashAncien = new BCryptPasswordEncoder(5).encode("secret");
+
+        assertThat(MotDePasseService.coutDe(hashCourant)).isEqualTo(4);
+        assertThat(service.verifier("secret", hashCourant)).isTrue();
+        assertThat(service.verifier("autre", hashCourant)).isFalse();
+        assertThat(service.doitRehacher(hashCourant)).isFalse();
+
+        assertThat(service.verifier("secret", hashAncien)).isTrue();
+        assertThat(service.doitRehacher(hashAncien)).isTrue();
+        assertThat(service.doitRehacher("pas un hash bcrypt")).isFalse();
+    }
+
+    @Test
+    void calibrageBorneParCoutMinEtMax() {
+        service = demarrer(0, 0, 4, 6, 1, 8);
+        assertThat(service.getCout()).isEqualTo(4);
+        service.arreter();
+
+        service = demarrer(0, 1_000_000, 4, 6, 1, 8);
+        assertThat(service.getCout()).isEqualTo(6);
+    }
+
+    @Test
+    void poolSatureRefuseImmediatement() throws Exception {
+        service = demarrer(4, 1000, 4, 8, 1, 1);
+        ThreadPoolExecutor executeur = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "executeur");
+
+        // Un calcul en cours, un en file : la file de 1 est pleine
+        CountDownLatch liberer = new CountDownLatch(1);
+        executeur.submit(() -> {
+            liberer.await();
+            return null;
+        });
+        Future<?> enFile = executeur.submit(() -> null);
+        try {
+            assertThatThrownBy(() -> service.verifier("secret", "$2a$04$abcdefghijklmnopqrstuu"))
+                    .isInstanceOf(RejectedExecutionException.class);
+        } finally {
+            liberer.countDown();
+        }
+        enFile.get();
+        assertThat(service.verifier("secret", service.hacher("secret"))).isTrue();
+    }
+
+    private MotDePasseService demarrer(int cout, long dureeCibleMs, int coutMin, int coutMax, int threads, int file) {
+        MotDePasseService motDePasseService = new MotDePasseService();
+        ReflectionTestUtils.setField(motDePasseService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(motDePasseService, "coutFixe", cout);
+        ReflectionTestUtils.setField(motDePasseService, "dureeCibleMs", dureeCibleMs);
+        ReflectionTestUtils.setField(motDePasseService, "coutMin", coutMin);
+        ReflectionTestUtils.setField(motDePasseService, "coutMax", coutMax);
+        ReflectionTestUtils.setField(motDePasseService, "threads", threads);
+        ReflectionTestUtils.setField(motDePasseService, "capaciteFile", file);
+        ReflectionTestUtils.setField(motDePasseService, "attenteMs", 5000L);
+        motDePasseService.demarrer();
+        return motDePasseService;
+    }
+}
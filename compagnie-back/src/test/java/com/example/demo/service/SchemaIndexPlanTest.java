@@ -0,0 +1,209 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.SignalementDetailRepository;
+import com.example.demo.repository.SignalementRepository;
+import com.example.demo.repository.SignalementStatutRepository;
+import com.example.demo.repository.TentativeConnexionRepository;
+import com.example.demo.repository.UtilisateurEtatRepository;
+import com.example.demo.repository.UtilisateurInfoRepository;
+import com.example.demo.repository.UtilisateurPasswordRepository;
+import com.example.demo.repository.UtilisateurRepository;
+import com.example.demo.repository.UtilisateurRoleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les requêtes des chemins critiques passent par les index des migrations (aucun parcours séquentiel)
+ * Jeu de données volumineux inséré puis annulé dans une seule transaction ; compteurs de
+ * pg_stat_xact_user_tables relevés avant et après chaque appel de repository (sommés sur les
+ * partitions des tables d'historique) ; l'état actuel n'est lu que dans la partition chaude.
+ * Nécessite une base PostgreSQL (schéma migré par Flyway au démarrage) :
+ * mvn test -Dtest=SchemaIndexPlanTest -Dbenchmark=true -Dspring.datasource.url=jdbc:postgresql://...
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SchemaIndexPlanTest {
+
+    private static final int UTILISATEURS = 50_000;
+    private static final int TENTATIVES = 500_000;
+    private static final int SIGNALEMENTS = 200_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private UtilisateurEtatRepository utilisateurEtatRepository;
+
+    @Autowired
+    private UtilisateurInfoRepository utilisateurInfoRepository;
+
+    @Autowired
+    private UtilisateurPasswordRepository utilisateurPasswordRepository;
+
+    @Autowired
+    private UtilisateurRoleRepository utilisateurRoleRepository;
+
+    @Autowired
+    private TentativeConnexionRepository tentativeConnexionRepository;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Autowired
+    private SignalementStatutRepository signalementStatutRepository;
+
+    @Autowired
+    private SignalementDetailRepository signalementDetailRepository;
+
+    @Test
+    void requetesCritiquesParIndex() {
+        // Chargement plus long que spring.transaction.default-timeout
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setTimeout(600);
+        transaction.executeWithoutResult(status -> {
+            long debut = System.nanoTime();
+            charger();
+            System.out.printf("Jeu de données chargé en %d ms%n", (System.nanoTime() - debut) / 1_000_000);
+
+            UUID utilisateur = uuid("charge-u", UTILISATEURS / 2);
+            UUID signalement = uuid("charge-s", SIGNALEMENTS / 2);
+            LocalDateTime depuis = LocalDateTime.now().minusDays(1);
+
+            verifier("utilisateur", () -> utilisateurRepository.findByFirebaseUid("charge-" + UTILISATEURS / 2));
+            verifier("utilisateur_etat", () -> utilisateurEtatRepository.findByIdUtilisateurAndDateFinIsNull(utilisateur));
+            verifier("utilisateur_info", () -> utilisateurInfoRepository.findByIdUtilisateurAndDateFinIsNull(utilisateur));
+            verifier("utilisateur_password", () -> utilisateurPasswordRepository.findByIdUtilisateurAndDateFinIsNull(utilisateur));
+            verifier("utilisateur_role", () -> utilisateurRoleRepository.findByIdUtilisateurAndDateFinIsNull(utilisateur));
+            verifier("tentative_connexion", () -> tentativeConnexionRepository.findRecentTentativesByUtilisateur(utilisateur));
+            verifier("tentative_connexion", () -> tentativeConnexionRepository.countEchecsConsecutifsDepuis(utilisateur, depuis));
+
+            verifier("signalement_statut", () -> signalementStatutRepository.findByIdSignalementAndDateFinIsNull(signalement));
+            verifier("signalement_detail", () -> signalementDetailRepository.findByIdSignalementAndDateFinIsNull(signalement));
+            verifierPartitionChaude("signalement_statut", () -> signalementStatutRepository.findByIdSignalementAndDateFinIsNull(signalement));
+            verifierPartitionChaude("signalement_detail", () -> signalementDetailRepository.findByIdSignalementAndDateFinIsNull(signalement));
+            verifierPartitionChaude("utilisateur_etat", () -> utilisateurEtatRepository.findByIdUtilisateurAndDateFinIsNull(utilisateur));
+            verifier("signalement_statut", () -> signalementRepository.findPremierePageHistorique(signalement, 50));
+            verifier("signalement_detail", () -> signalementRepository.findPremierePageHistorique(signalement, 50));
+            verifier("signalement", () -> signalementRepository.findActuelsByUtilisateur(utilisateur));
+            verifier("signalement", () -> signalementRepository.findPremierePageActuels(
+                    null, null, true, null, PageRequest.of(0, 100)));
+            verifier("signalement", () -> signalementRepository.findPageActuelsApres(
+                    null, null, true, null, depuis, signalement, PageRequest.of(0, 100)));
+            verifier("signalement", () -> signalementRepository.rechercherActuels(
+                    "chaussée", null, false, 0, 0, 0, 0, 100));
+            verifier("signalement", () -> signalementRepository.rechercherActuels(
+                    "\"nid de poule\"", null, true, -18.95, 47.45, -18.85, 47.55, 100));
+
+            status.setRollbackOnly();
+        });
+    }
+
+    /**
+     * L'appel lit la table par un index et sans aucun parcours séquentiel
+     */
+    private void verifier(String table, Runnable requete) {
+        Map<String, Object> avant = compteurs(table);
+        requete.run();
+        Map<String, Object> apres = compteurs(table);
+
+        assertThat(((Number) apres.get("seq_scan")).longValue())
+                .as("parcours séquentiel de %s", table)
+                .isEqualTo(((Number) avant.get("seq_scan")).longValue());
+        assertThat(((Number) apres.get("idx_scan")).longValue())
+                .as("parcours d'index de %s", table)
+                .isGreaterThan(((Number) avant.get("idx_scan")).longValue());
+    }
+
+    /**
+     * Lecture de l'état actuel : aucune partition lue en dehors de la partition chaude <table>_ouvert
+     */
+    private void verifierPartitionChaude(String table, Runnable requete) {
+        String sql = "SELECT COALESCE(SUM(seq_scan + COALESCE(idx_scan, 0)), 0) FROM pg_stat_xact_user_tables " +
+                "WHERE relid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = CAST(? AS regclass)) " +
+                "AND relname <> ?";
+        Long avant = jdbcTemplate.queryForObject(sql, Long.class, table, table + "_ouvert");
+        requete.run();
+        Long apres = jdbcTemplate.queryForObject(sql, Long.class, table, table + "_ouvert");
+
+        assertThat(apres).as("partitions de %s lues hors partition chaude", table).isEqualTo(avant);
+    }
+
+    private Map<String, Object> compteurs(String table) {
+        // Table partitionnée (V6) : compteurs portés par les partitions ; le parcours séquentiel
+        // d'une partition vide (mois à venir, relpages = 0) ne coûte rien et n'est pas compté
+        return jdbcTemplate.queryForMap("SELECT COALESCE(SUM(s.seq_scan) FILTER (WHERE c.relpages > 0), 0) AS seq_scan, " +
+                "COALESCE(SUM(s.idx_scan), 0) AS idx_scan FROM pg_stat_xact_user_tables s " +
+                "JOIN pg_class c ON c.oid = s.relid " +
+                "WHERE s.relid = CAST(? AS regclass) " +
+                "OR s.relid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = CAST(? AS regclass))", table, table);
+    }
+
+    private UUID uuid(String prefixe, int i) {
+        return jdbcTemplate.queryForObject("SELECT md5(?)::uuid", UUID.class, prefixe + i);
+    }
+
+    /**
+     * Trois versions par table historisée (une seule ouverte), tentatives et signalements répartis sur 90 jours
+     */
+    private void charger() {
+        jdbcTemplate.update("INSERT INTO utilisateur (id_utilisateur, email, source_auth, date_creation, firebase_uid) " +
+                "SELECT md5('charge-u' || i)::uuid, 'charge-' || i || '@charge.test', 'LOCAL', " +
+                "NOW() - (i % 90) * INTERVAL '1 day', 'charge-' || i FROM generate_series(1, ?) i", UTILISATEURS);
+
+        for (String historisee : new String[]{
+                "utilisateur_etat (id_utilisateur, id_etat, date_debut, date_fin) SELECT u, 1",
+                "utilisateur_info (id_utilisateur, nom, prenom, date_debut, date_fin) SELECT u, 'Nom', 'Prénom'",
+                "utilisateur_password (id_utilisateur, password_hash, date_debut, date_fin) SELECT u, 'hash'",
+                "utilisateur_role (id_utilisateur, id_role, date_debut, date_fin) SELECT u, 2"}) {
+            jdbcTemplate.update("INSERT INTO " + historisee + ", " +
+                    "NOW() - (4 - v) * INTERVAL '10 day', CASE WHEN v < 3 THEN NOW() - (3 - v) * INTERVAL '10 day' END " +
+                    "FROM (SELECT md5('charge-u' || i)::uuid AS u FROM generate_series(1, ?) i) x, generate_series(1, 3) v",
+                    UTILISATEURS);
+        }
+
+        jdbcTemplate.update("INSERT INTO tentative_connexion (id_utilisateur, date_tentative, succes) " +
+                "SELECT md5('charge-u' || (1 + i % ?))::uuid, NOW() - (i % 2160) * INTERVAL '1 hour', i % 4 <> 0 " +
+                "FROM generate_series(1, ?) i", UTILISATEURS, TENTATIVES);
+
+        jdbcTemplate.update("INSERT INTO signalement (id_signalement, id_utilisateur, latitude, longitude, source, " +
+                "date_creation, description) " +
+                "SELECT md5('charge-s' || i)::uuid, md5('charge-u' || (1 + i % ?))::uuid, " +
+                "-18.9 + (i % 1000) * 0.0001, 47.5 + (i / 1000) * 0.0001, 'CHARGE', NOW() - i * INTERVAL '10 second', " +
+                "(ARRAY['Route fissurée', 'Trottoir cassé', 'Feu tricolore en panne', 'Caniveau bouché'])[1 + i % 4] " +
+                "|| CASE WHEN i % 1000 = 0 THEN ', nid de poule sur la chaussée' ELSE '' END " +
+                "FROM generate_series(1, ?) i", UTILISATEURS, SIGNALEMENTS);
+        jdbcTemplate.update("INSERT INTO signalement_statut (id_signalement, id_statut, date_debut, date_fin) " +
+                "SELECT s, v, NOW() - (4 - v) * INTERVAL '1 day', CASE WHEN v < 3 THEN NOW() - (3 - v) * INTERVAL '1 day' END " +
+                "FROM (SELECT md5('charge-s' || i)::uuid AS s FROM generate_series(1, ?) i) x, generate_series(1, 3) v",
+                SIGNALEMENTS);
+        jdbcTemplate.update("INSERT INTO signalement_detail (id_signalement, surface_m2, budget, date_debut, date_fin) " +
+                "SELECT s, 10 * v, 1000 * v, NOW() - (3 - v) * INTERVAL '1 day', CASE WHEN v < 2 THEN NOW() END " +
+                "FROM (SELECT md5('charge-s' || i)::uuid AS s FROM generate_series(1, ?) i) x, generate_series(1, 2) v",
+                SIGNALEMENTS);
+        jdbcTemplate.update("INSERT INTO signalement_courant (id_signalement, id_statut, code_statut, date_debut_statut, " +
+                "surface_m2, budget, date_modification) " +
+                "SELECT md5('charge-s' || i)::uuid, 3, 'TERMINE', NOW() - INTERVAL '1 day', 20, 2000, NOW() " +
+                "FROM generate_series(1, ?) i", SIGNALEMENTS);
+
+        jdbcTemplate.execute("ANALYZE utilisateur, utilisateur_etat, utilisateur_info, utilisateur_password, " +
+                "utilisateur_role, tentative_connexion, signalement, signalement_statut, signalement_detail, signalement_courant");
+    }
+}
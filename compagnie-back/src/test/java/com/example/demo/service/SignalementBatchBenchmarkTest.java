@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.SignalementRequest;
+import com.example.demo.DTO.SignalementResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Débit de création : un signalement par transaction vs POST /api/signalements/batch
+ * Nécessite une base PostgreSQL (schéma migré par Flyway au démarrage) :
+ * mvn test -Dtest=SignalementBatchBenchmarkTest -Dbenchmark=true -Dspring.datasource.url=jdbc:postgresql://...
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SignalementBatchBenchmarkTest {
+
+    private static final int NOMBRE = 1000;
+    private static final int TAILLE_LOT = 50;
+
+    @Autowired
+    private SignalementService signalementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> crees = new ArrayList<>();
+
+    @Test
+    void comparerInsertionUnitaireEtParLot() {
+        // Chauffe (JIT, pool de connexions, séquences)
+        mesurerUnitaire(50);
+        mesurerParLot(50);
+
+        long unitaire = mesurerUnitaire(NOMBRE);
+        long parLot = mesurerParLot(NOMBRE);
+
+        System.out.printf("Création unitaire : %d signalements en %d ms (%.0f/s)%n",
+                NOMBRE, unitaire, NOMBRE * 1000.0 / unitaire);
+        System.out.printf("Création par lot de %d : %d signalements en %d ms (%.0f/s)%n",
+                TAILLE_LOT, NOMBRE, parLot, NOMBRE * 1000.0 / parLot);
+
+        assertThat(crees).hasSize(2 * (NOMBRE + 50));
+    }
+
+    @AfterEach
+    void nettoyer() {
+        List<Object[]> ids = crees.stream().map(id -> new Object[]{id}).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM signalement_courant WHERE id_signalement = ?", ids);
+        jdbcTemplate.batchUpdate("DELETE FROM signalement_statut WHERE id_signalement = ?", ids);
+        jdbcTemplate.batchUpdate("DELETE FROM signalement WHERE id_signalement = ?", ids);
+    }
+
+    private long mesurerUnitaire(int nombre) {
+        long debut = System.nanoTime();
+        for (int i = 0; i < nombre; i++) {
+            crees.add(signalementService.creerSignalement(requete(i)).getIdSignalement());
+        }
+        return (System.nanoTime() - debut) / 1_000_000;
+    }
+
+    private long mesurerParLot(int nombre) {
+        long debut = System.nanoTime();
+        for (int i = 0; i < nombre; i += TAILLE_LOT) {
+            List<SignalementRequest> lot = new ArrayList<>(TAILLE_LOT);
+            for (int j = i; j < Math.min(i + TAILLE_LOT, nombre); j++) {
+                lot.add(requete(j));
+            }
+            for (SignalementResponse response : signalementService.creerSignalements(lot)) {
+                crees.add(response.getIdSignalement());
+            }
+        }
+        return (System.nanoTime() - debut) / 1_000_000;
+    }
+
+    private SignalementRequest requete(int i) {
+        return new SignalementRequest(null, -18.90 - (i % 100) * 0.001, 47.50 + (i / 100) * 0.001, "MOBILE", null);
+    }
+}
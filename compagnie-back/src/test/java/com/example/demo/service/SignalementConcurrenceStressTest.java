@@ -0,0 +1,197 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.SignalementRequest;
+import com.example.demo.DTO.SignalementResponse;
+import com.example.demo.DTO.UpdateSignalementRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mises à jour concurrentes : nombreux écrivains sur quelques signalements partagés
+ * (conflits rejoués) et sur des signalements distincts (parallélisme)
+ * Nécessite une base PostgreSQL (schéma migré par Flyway au démarrage) :
+ * mvn test -Dtest=SignalementConcurrenceStressTest -Dbenchmark=true -Dspring.datasource.url=jdbc:postgresql://...
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SignalementConcurrenceStressTest {
+
+    private static final int THREADS = 16;
+    private static final int PARTAGES = 3;
+    private static final int MISES_A_JOUR_PAR_THREAD = 40;
+    private static final String[] STATUTS = {"NOUVEAU", "EN_COURS", "TERMINE"};
+
+    @Autowired
+    private SignalementService signalementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> crees = new ArrayList<>();
+
+    @Test
+    void ecrivainsConcurrentsSansCorruptionDeLHistorique() throws InterruptedException {
+        List<UUID> partages = creer(PARTAGES);
+        List<UUID> distincts = creer(THREADS);
+
+        Map<UUID, AtomicLong> reussites = new ConcurrentHashMap<>();
+        Queue<Throwable> erreurs = new ConcurrentLinkedQueue<>();
+
+        long debut = System.nanoTime();
+        executer(THREADS, t -> {
+            for (int i = 0; i < MISES_A_JOUR_PAR_THREAD; i++) {
+                // Une mise à jour sur deux vise un signalement partagé
+                UUID id = i % 2 == 0 ? partages.get((t + i) % PARTAGES) : distincts.get(t);
+                try {
+                    signalementService.updateSignalement(requete(id, t * MISES_A_JOUR_PAR_THREAD + i));
+                    reussites.computeIfAbsent(id, k -> new AtomicLong()).incrementAndGet();
+                } catch (Throwable e) {
+                    erreurs.add(e);
+                }
+            }
+        });
+        long duree = (System.nanoTime() - debut) / 1_000_000;
+        System.out.printf("Mises à jour concurrentes : %d en %d ms (%d threads, %d signalements partagés)%n",
+                THREADS * MISES_A_JOUR_PAR_THREAD, duree, THREADS, PARTAGES);
+
+        assertThat(erreurs).isEmpty();
+        for (UUID id : crees) {
+            long nombre = reussites.getOrDefault(id, new AtomicLong()).get();
+            verifierHistorique(id, nombre);
+        }
+    }
+
+    @Test
+    void signalementsDistinctsEnParallele() throws InterruptedException {
+        List<UUID> distincts = creer(THREADS);
+        int nombre = THREADS * MISES_A_JOUR_PAR_THREAD;
+
+        // Chauffe (JIT, pool de connexions, séquences)
+        executer(1, t -> signalementService.updateSignalement(requete(distincts.get(0), 0)));
+
+        long debut = System.nanoTime();
+        executer(1, t -> {
+            for (int i = 0; i < nombre; i++) {
+                signalementService.updateSignalement(requete(distincts.get(i % THREADS), i));
+            }
+        });
+        long sequentiel = (System.nanoTime() - debut) / 1_000_000;
+
+        debut = System.nanoTime();
+        executer(THREADS, t -> {
+            for (int i = 0; i < MISES_A_JOUR_PAR_THREAD; i++) {
+                signalementService.updateSignalement(requete(distincts.get(t), i));
+            }
+        });
+        long parallele = (System.nanoTime() - debut) / 1_000_000;
+
+        System.out.printf("Signalements distincts : %d mises à jour en %d ms sur 1 thread, %d ms sur %d threads%n",
+                nombre, sequentiel, parallele, THREADS);
+
+        for (UUID id : distincts) {
+            verifierHistorique(id, id.equals(distincts.get(0)) ? 2L * MISES_A_JOUR_PAR_THREAD + 1 : 2L * MISES_A_JOUR_PAR_THREAD);
+        }
+    }
+
+    @AfterEach
+    void nettoyer() {
+        List<Object[]> ids = crees.stream().map(id -> new Object[]{id}).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM signalement_courant WHERE id_signalement = ?", ids);
+        jdbcTemplate.batchUpdate("DELETE FROM signalement_detail WHERE id_signalement = ?", ids);
+        jdbcTemplate.batchUpdate("DELETE FROM signalement_statut WHERE id_signalement = ?", ids);
+        jdbcTemplate.batchUpdate("DELETE FROM signalement WHERE id_signalement = ?", ids);
+    }
+
+    /**
+     * Une seule version ouverte, cohérente avec signalement_courant, et une version par mise à jour réussie
+     */
+    private void verifierHistorique(UUID id, long misesAJour) {
+        assertThat(compter("SELECT COUNT(*) FROM signalement_statut WHERE id_signalement = ? AND date_fin IS NULL", id))
+                .isEqualTo(1);
+        assertThat(compter("SELECT COUNT(*) FROM signalement_detail WHERE id_signalement = ? AND date_fin IS NULL", id))
+                .isEqualTo(misesAJour > 0 ? 1 : 0);
+        assertThat(compter("SELECT COUNT(*) FROM signalement_statut WHERE id_signalement = ?", id))
+                .isEqualTo(misesAJour + 1);
+        assertThat(compter("SELECT COUNT(*) FROM signalement_detail WHERE id_signalement = ?", id))
+                .isEqualTo(misesAJour);
+        assertThat(compter("SELECT version FROM signalement_courant WHERE id_signalement = ?", id))
+                .isEqualTo(misesAJour);
+        assertThat(compter("SELECT COUNT(*) FROM signalement_courant c " +
+                "JOIN signalement_statut ss ON ss.id_signalement = c.id_signalement AND ss.date_fin IS NULL " +
+                "WHERE c.id_signalement = ? AND c.id_statut = ss.id_statut", id))
+                .isEqualTo(1);
+        if (misesAJour > 0) {
+            assertThat(compter("SELECT COUNT(*) FROM signalement_courant c " +
+                    "JOIN signalement_detail d ON d.id_signalement = c.id_signalement AND d.date_fin IS NULL " +
+                    "WHERE c.id_signalement = ? AND c.budget = d.budget AND c.surface_m2 = d.surface_m2", id))
+                    .isEqualTo(1);
+        }
+    }
+
+    private long compter(String sql, UUID id) {
+        return jdbcTemplate.queryForObject(sql, Long.class, id);
+    }
+
+    private List<UUID> creer(int nombre) {
+        List<SignalementRequest> requests = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            requests.add(new SignalementRequest(null, -18.90 - i * 0.001, 47.50, "MOBILE", null));
+        }
+        List<UUID> ids = new ArrayList<>();
+        for (SignalementResponse response : signalementService.creerSignalements(requests)) {
+            ids.add(response.getIdSignalement());
+        }
+        crees.addAll(ids);
+        return ids;
+    }
+
+    private static UpdateSignalementRequest requete(UUID id, int i) {
+        return new UpdateSignalementRequest(id, STATUTS[i % STATUTS.length],
+                BigDecimal.valueOf(10 + i % 90), BigDecimal.valueOf(1000L * (i + 1)), null);
+    }
+
+    private interface Travail {
+        void executer(int thread);
+    }
+
+    private static void executer(int threads, Travail travail) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch depart = new CountDownLatch(1);
+        Queue<Throwable> erreurs = new ConcurrentLinkedQueue<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                try {
+                    depart.await();
+                    travail.executer(thread);
+                } catch (Throwable e) {
+                    erreurs.add(e);
+                }
+            });
+        }
+        depart.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(erreurs).isEmpty();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.SignalementResponse;
+import com.example.demo.entite.Signalement;
+import com.example.demo.event.SignalementEvent;
+import com.example.demo.repository.SignalementActuelView;
+import com.example.demo.repository.SignalementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SignalementSpatialIndexTest {
+
+    private SignalementRepository signalementRepository;
+    private SignalementSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        signalementRepository = mock(SignalementRepository.class);
+        index = new SignalementSpatialIndex();
+        ReflectionTestUtils.setField(index, "signalementRepository", signalementRepository);
+        ReflectionTestUtils.setField(index, "tailleCellule", 0.01);
+    }
+
+    @Test
+    void rechercheUniquementLesPointsDeLaZone() {
+        UUID analakely = UUID.randomUUID();
+        UUID ivandry = UUID.randomUUID();
+        UUID paris = UUID.randomUUID();
+        List<SignalementActuelView> actuels = List.of(
+                actuel(analakely, -18.9139, 47.5230, "NOUVEAU"),
+                actuel(ivandry, -18.8952, 47.5343, "EN_COURS"),
+                actuel(paris, 48.8566, 2.3522, "TERMINE"));
+        when(signalementRepository.findAllActuels()).thenReturn(actuels);
+        index.reconstruire();
+
+        assertThat(ids(index.rechercher(-18.92, 47.52, -18.91, 47.53))).containsExactly(analakely);
+        assertThat(ids(index.rechercher(-19.0, 47.0, -18.0, 48.0))).containsExactlyInAnyOrder(analakely, ivandry);
+        assertThat(ids(index.rechercher(-90, -180, 90, 180))).containsExactlyInAnyOrder(analakely, ivandry, paris);
+        assertThat(index.rechercher(10, 10, 11, 11)).isEmpty();
+
+        // Bornes hors du globe : indices de cellule ramenés au globe, pas de parcours démesuré
+        assertThat(ids(index.rechercher(-1e30, -1e30, 1e30, 1e30))).containsExactlyInAnyOrder(analakely, ivandry, paris);
+        assertThat(ids(index.rechercher(-18.92, 47.52, -18.91, 1e30))).containsExactly(analakely);
+        assertThat(index.voisins(90, 0, 25)).isEmpty();
+    }
+
+    @Test
+    void evenementDeplaceLePointDansLaBonneCellule() {
+        UUID id = UUID.randomUUID();
+        List<SignalementActuelView> actuels = List.of(actuel(id, -18.9139, 47.5230, "NOUVEAU"));
+        when(signalementRepository.findAllActuels()).thenReturn(actuels);
+        index.reconstruire();
+
+        SignalementActuelView deplace = actuel(id, -18.8000, 47.6000, "EN_COURS");
+        when(signalementRepository.findActuelById(id)).thenReturn(Optional.of(deplace));
+        Signalement signalement = new Signalement();
+        signalement.setIdSignalement(id);
+        index.onSignalementEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.UPDATED));
+
+        assertThat(index.rechercher(-18.92, 47.52, -18.91, 47.53)).isEmpty();
+        assertThat(index.rechercher(-18.81, 47.59, -18.79, 47.61))
+                .singleElement()
+                .satisfies(point -> assertThat(point.statut()).isEqualTo("EN_COURS"));
+        assertThat(index.taille()).isEqualTo(1);
+    }
+
+    @Test
+    void voisinsDansLeRayonDuPlusProcheAuPlusEloigne() {
+        UUID a10m = UUID.randomUUID();
+        UUID a20m = UUID.randomUUID();
+        UUID a40m = UUID.randomUUID();
+        // 0.0001° de latitude ≈ 11,1 m
+        List<SignalementActuelView> actuels = List.of(
+                actuel(a20m, -18.9139 + 0.00018, 47.5230, "NOUVEAU"),
+                actuel(a40m, -18.9139 - 0.00036, 47.5230, "NOUVEAU"),
+                actuel(a10m, -18.9139, 47.5230 + 0.000095, "EN_COURS"));
+        when(signalementRepository.findAllActuels()).thenReturn(actuels);
+        index.reconstruire();
+
+        List<SignalementSpatialIndex.Voisin> voisins = index.voisins(-18.9139, 47.5230, 25);
+
+        assertThat(voisins).extracting(voisin -> voisin.point().idSignalement()).containsExactly(a10m, a20m);
+        assertThat(voisins.get(0).distanceMetres()).isBetween(9.0, 11.0);
+        assertThat(voisins.get(1).distanceMetres()).isBetween(19.0, 21.0);
+    }
+
+    @Test
+    void evenementsRecusPendantLaReconstructionSontRejoues() {
+        UUID existant = UUID.randomUUID();
+        UUID cree = UUID.randomUUID();
+        List<SignalementActuelView> actuels = List.of(actuel(existant, -18.9139, 47.5230, "NOUVEAU"));
+        // Création validée pendant la lecture de la base : absente de la lecture, événement reçu avant la fin
+        when(signalementRepository.findAllActuels()).thenAnswer(invocation -> {
+            Signalement signalement = new Signalement();
+            signalement.setIdSignalement(cree);
+            signalement.setLatitude(-18.8952);
+            signalement.setLongitude(47.5343);
+            index.onSignalementEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.CREATED));
+            return actuels;
+        });
+
+        index.reconstruire();
+        assertThat(ids(index.rechercher(-19.0, 47.0, -18.0, 48.0))).containsExactlyInAnyOrder(existant, cree);
+
+        // Reconstruction suivante : la grille en service reste lisible pendant la lecture
+        when(signalementRepository.findAllActuels()).thenAnswer(invocation -> {
+            assertThat(index.taille()).isEqualTo(2);
+            return actuels;
+        });
+        index.reconstruire();
+        assertThat(ids(index.rechercher(-19.0, 47.0, -18.0, 48.0))).containsExactly(existant);
+    }
+
+    @Test
+    void zoneLeafletHorsDesLongitudesDuGlobeEstBornee() {
+        UUID analakely = UUID.randomUUID();
+        UUID honolulu = UUID.randomUUID();
+        List<SignalementActuelView> actuels = List.of(
+                actuel(analakely, -18.9139, 47.5230, "NOUVEAU"),
+                actuel(honolulu, 21.3069, -157.8583, "NOUVEAU"));
+        when(signalementRepository.findAllActuels()).thenReturn(actuels);
+        when(signalementRepository.findActuelsByIds(anyList())).thenAnswer(invocation -> {
+            List<UUID> demandes = invocation.getArgument(0);
+            return actuels.stream().filter(actuel -> demandes.contains(actuel.getIdSignalement())).toList();
+        });
+        index.reconstruire();
+
+        SignalementService service = new SignalementService();
+        ReflectionTestUtils.setField(service, "signalementRepository", signalementRepository);
+        ReflectionTestUtils.setField(service, "signalementSpatialIndex", index);
+        ReflectionTestUtils.setField(service, "entrepriseCache", mock(EntrepriseCache.class));
+
+        // Carte dézoomée au niveau 0 : getWest()/getEast() au-delà de ±180
+        assertThat(service.getSignalementsDansZone(-85, -540, 85, 540))
+                .extracting(SignalementResponse::getIdSignalement)
+                .containsExactlyInAnyOrder(analakely, honolulu);
+        // Vue à cheval sur l'antiméridien : bornée à [40, 180]
+        assertThat(service.getSignalementsDansZone(-30, 40, 30, 200))
+                .extracting(SignalementResponse::getIdSignalement)
+                .containsExactly(analakely);
+        // Vue entièrement sur une copie du monde : aucun marqueur affiché par Leaflet
+        assertThat(service.getSignalementsDansZone(-30, 400, 30, 420)).isEmpty();
+        assertThatThrownBy(() -> service.getSignalementsDansZone(-30, 50, 30, 40))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Mesure (hors suite par défaut) : mvn test -Dtest=SignalementSpatialIndexTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void mesurerVoisinsSurTroisCentMilleSignalements() {
+        when(signalementRepository.findAllActuels()).thenReturn(List.of());
+        index.reconstruire();
+
+        // ~300 000 signalements sur l'agglomération d'Antananarivo (0,3° x 0,3°)
+        Random random = new Random(42);
+        for (int i = 0; i < 300_000; i++) {
+            Signalement signalement = new Signalement();
+            signalement.setIdSignalement(UUID.randomUUID());
+            signalement.setLatitude(-19.05 + random.nextDouble() * 0.3);
+            signalement.setLongitude(47.40 + random.nextDouble() * 0.3);
+            index.onSignalementEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.CREATED));
+        }
+        assertThat(index.taille()).isEqualTo(300_000);
+
+        int requetes = 20_000;
+        int trouves = 0;
+        for (int i = 0; i < requetes; i++) {
+            trouves += index.voisins(-19.05 + random.nextDouble() * 0.3, 47.40 + random.nextDouble() * 0.3, 25).size();
+        }
+        long debut = System.nanoTime();
+        for (int i = 0; i < requetes; i++) {
+            trouves += index.voisins(-19.05 + random.nextDouble() * 0.3, 47.40 + random.nextDouble() * 0.3, 25).size();
+        }
+        double moyenneMs = (System.nanoTime() - debut) / 1_000_000.0 / requetes;
+
+        assertThat(trouves).isPositive();
+        System.out.printf("Voisins dans 25 m parmi 300 000 signalements : moyenne %.3f ms%n", moyenneMs);
+    }
+
+    private List<UUID> ids(List<SignalementSpatialIndex.PointSignalement> points) {
+        return points.stream().map(SignalementSpatialIndex.PointSignalement::idSignalement).toList();
+    }
+
+    private SignalementActuelView actuel(UUID id, double latitude, double longitude, String statut) {
+        SignalementActuelView actuel = mock(SignalementActuelView.class);
+        when(actuel.getIdSignalement()).thenReturn(id);
+        when(actuel.getLatitude()).thenReturn(latitude);
+        when(actuel.getLongitude()).thenReturn(longitude);
+        when(actuel.getStatut()).thenReturn(statut);
+        return actuel;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import com.example.demo.DTO.StatistiquesResponse;
+import com.example.demo.repository.SignalementCourantRepository;
+import com.example.demo.repository.StatistiqueStatutView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SignalementStatistiquesServiceTest {
+
+    private SignalementCourantRepository signalementCourantRepository;
+    private SignalementStatistiquesService service;
+
+    @BeforeEach
+    void setUp() {
+        signalementCourantRepository = mock(SignalementCourantRepository.class);
+        service = new SignalementStatistiquesService();
+        ReflectionTestUtils.setField(service, "signalementCourantRepository", signalementCourantRepository);
+    }
+
+    @Test
+    void deltasEquivalentsAuRecalculComplet() {
+        List<StatistiqueStatutView> lignes = List.of(
+                ligne("NOUVEAU", 2, null, null),
+                ligne("EN_COURS", 1, "40.00", "1000000"));
+        when(signalementCourantRepository.statistiquesParStatut()).thenReturn(lignes);
+        service.recalculer();
+
+        // Création, puis passage d'un signalement EN_COURS à TERMINE avec de nouveaux détails
+        service.enregistrerDelta(null, contribution("NOUVEAU", null, null));
+        service.enregistrerDelta(contribution("EN_COURS", "40.00", "1000000"),
+                contribution("TERMINE", "55.50", "1500000"));
+
+        StatistiquesResponse stats = service.getStatistiques();
+        assertThat(stats.getNbTotal()).isEqualTo(4);
+        assertThat(stats.getTotalSurface()).isEqualByComparingTo("55.50");
+        assertThat(stats.getTotalBudget()).isEqualByComparingTo("1500000");
+        assertThat(stats.getAvancementPourcentage()).isEqualTo(25.0);
+        assertThat(stats.getParStatut())
+                .extracting(StatistiquesResponse.StatutStatistiques::getStatut)
+                .containsExactly("NOUVEAU", "TERMINE");
+    }
+
+    @Test
+    void recalculPendantUnCommitNeCompteLeChangementQuUneFois() throws Exception {
+        List<StatistiqueStatutView> avant = List.of(ligne("NOUVEAU", 2, null, null));
+        List<StatistiqueStatutView> apres = List.of(ligne("NOUVEAU", 3, null, null));
+        when(signalementCourantRepository.statistiquesParStatut()).thenReturn(avant);
+        service.recalculer();
+
+        // Transaction qui crée un signalement : commit commencé, delta pas encore appliqué
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.enregistrerDelta(null, contribution("NOUVEAU", null, null));
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+            // Recalcul lancé pendant le commit : sa lecture verra le signalement créé
+            when(signalementCourantRepository.statistiquesParStatut()).thenReturn(apres);
+            Thread recalcul = new Thread(service::recalculer);
+            recalcul.start();
+            recalcul.join(200);
+            assertThat(recalcul.isAlive()).as("lecture du recalcul en attente du commit").isTrue();
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            recalcul.join(5_000);
+            assertThat(recalcul.isAlive()).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(service.getStatistiques().getNbTotal()).isEqualTo(3);
+    }
+
+    private static SignalementStatistiquesService.Contribution contribution(String statut, String surface, String budget) {
+        return new SignalementStatistiquesService.Contribution(statut,
+                surface != null ? new BigDecimal(surface) : null,
+                budget != null ? new BigDecimal(budget) : null);
+    }
+
+    private static StatistiqueStatutView ligne(String statut, long nombre, String surface, String budget) {
+        StatistiqueStatutView ligne = mock(StatistiqueStatutView.class);
+        when(ligne.getStatut()).thenReturn(statut);
+        when(ligne.getNombre()).thenReturn(nombre);
+        when(ligne.getSurface()).thenReturn(surface != null ? new BigDecimal(surface) : null);
+        when(ligne.getBudget()).thenReturn(budget != null ? new BigDecimal(budget) : null);
+        return ligne;
+    }
+}
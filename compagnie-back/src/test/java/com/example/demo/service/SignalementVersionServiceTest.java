@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import com.example.demo.entite.Signalement;
+import com.example.demo.event.SignalementEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalementVersionServiceTest {
+
+    @Test
+    void versionsOublieesAuDelaDuMaximumSansRevenirEnArriere() {
+        SignalementVersionService service = new SignalementVersionService();
+        ReflectionTestUtils.setField(service, "maxSignalements", 4);
+
+        List<UUID> ids = new ArrayList<>();
+        List<String> etags = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            modifier(service, id);
+            etags.add(service.etagSignalement(id));
+        }
+        UUID jamaisModifie = UUID.randomUUID();
+        String etagJamaisModifie = service.etagSignalement(jamaisModifie);
+
+        Map<?, ?> versionsParId = (Map<?, ?>) ReflectionTestUtils.getField(service, "versionsParId");
+        assertThat(versionsParId).hasSizeLessThanOrEqualTo(4);
+
+        // Versions 1 à 5 : 1 à 3 oubliées, base relevée à 3 ; aucun ETag ne revient à une version antérieure
+        assertThat(service.etagSignalement(ids.get(0))).isNotEqualTo(etags.get(0));
+        assertThat(service.etagSignalement(ids.get(1))).isNotEqualTo(etags.get(1));
+        for (int i = 2; i < 5; i++) {
+            assertThat(service.etagSignalement(ids.get(i))).isEqualTo(etags.get(i));
+        }
+
+        // Sans nouvel oubli, une modification ne change que l'ETag du signalement modifié
+        modifier(service, ids.get(0));
+        assertThat(service.etagSignalement(ids.get(0))).endsWith("-6\"");
+        assertThat(service.etagSignalement(jamaisModifie)).isEqualTo(etagJamaisModifie);
+    }
+
+    private void modifier(SignalementVersionService service, UUID id) {
+        Signalement signalement = new Signalement();
+        signalement.setIdSignalement(id);
+        service.onSignalementEvent(new SignalementEvent(this, signalement, SignalementEvent.EventType.UPDATED));
+    }
+}
@@ -137,6 +137,33 @@ VALUES ('550e8400-e29b-41d4-a716-446655440010'::uuid,
         (SELECT id_entreprise FROM entreprise WHERE nom = 'BTP Madagascar'), 
         NOW() - INTERVAL '7 days');
 
+-- ============================================================
+-- PROJECTION signalement_courant (lue par v_signalement_actuel)
+-- ============================================================
+-- Même reconstruction que V2 et POST /api/admin/signalements/projection/reconstruire
+INSERT INTO signalement_courant (id_signalement, id_statut, code_statut, date_debut_statut,
+                                 surface_m2, budget, id_entreprise, date_modification)
+SELECT DISTINCT ON (s.id_signalement)
+    s.id_signalement,
+    ss.id_statut,
+    st.code,
+    ss.date_debut,
+    d.surface_m2,
+    d.budget,
+    d.id_entreprise,
+    GREATEST(s.date_creation, ss.date_debut, d.date_debut)
+FROM signalement s
+LEFT JOIN signalement_statut ss
+    ON ss.id_signalement = s.id_signalement
+   AND ss.date_fin IS NULL
+LEFT JOIN statut_signalement st
+    ON st.id_statut = ss.id_statut
+LEFT JOIN signalement_detail d
+    ON d.id_signalement = s.id_signalement
+   AND d.date_fin IS NULL
+ORDER BY s.id_signalement, ss.date_debut DESC NULLS LAST, d.date_debut DESC NULLS LAST
+ON CONFLICT (id_signalement) DO NOTHING;
+
 -- ============================================================
 -- STATISTIQUES
 -- ============================================================
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { MapContainer, TileLayer, Marker, Popup, Tooltip, useMapEvents } from 'react-leaflet';
+import { MapContainer, TileLayer, Marker, Popup, Tooltip, useMap, useMapEvents } from 'react-leaflet';
 import 'leaflet/dist/leaflet.css';
 import L from 'leaflet';
 import apiService from '../services/ApiService';
@@ -31,6 +31,57 @@ const icons = {
   default: createIcon('#757575'),
 };
 
+// En dessous de ce niveau de zoom, les signalements sont regroupés par tuile (agrégation serveur)
+const ZOOM_POINTS = 12;
+
+// Icône de regroupement : cercle dont la taille suit le nombre de signalements
+const createClusterIcon = (nombre) => {
+  const taille = nombre < 10 ? 30 : nombre < 100 ? 38 : 46;
+  return L.divIcon({
+    className: 'cluster-marker',
+    html: `<div style="background-color: rgba(33, 150, 243, 0.85); color: white; width: ${taille}px; height: ${taille}px; border-radius: 50%; border: 3px solid white; box-shadow: 0 2px 5px rgba(0,0,0,0.3); display: flex; align-items: center; justify-content: center; font-weight: bold; font-size: 0.8rem;">${nombre}</div>`,
+    iconSize: [taille, taille],
+    iconAnchor: [taille / 2, taille / 2],
+  });
+};
+
+// Composant pour recharger les signalements visibles à chaque déplacement de la carte
+const MapBoundsHandler = ({ onBoundsChange }) => {
+  const map = useMapEvents({
+    moveend: () => onBoundsChange(map.getBounds(), map.getZoom()),
+  });
+
+  useEffect(() => {
+    onBoundsChange(map.getBounds(), map.getZoom());
+  }, [map]);
+
+  return null;
+};
+
+// Regroupements affichés en zoom arrière ; un clic zoome sur le regroupement
+const ClusterMarkers = ({ clusters }) => {
+  const map = useMap();
+  return clusters.map((cluster) => (
+    <Marker
+      key={`${cluster.zoom}-${cluster.x}-${cluster.y}`}
+      position={[cluster.latitude, cluster.longitude]}
+      icon={createClusterIcon(cluster.nombre)}
+      eventHandlers={{
+        click: () => map.setView([cluster.latitude, cluster.longitude], Math.max(map.getZoom() + 2, ZOOM_POINTS)),
+      }}
+    >
+      <Tooltip direction="top" offset={[0, -10]} opacity={0.95}>
+        <div style={{ fontSize: '0.85rem' }}>
+          <strong>{cluster.nombre} signalement(s)</strong>
+          {Object.entries(cluster.statuts || {}).map(([statut, nombre]) => (
+            <div key={statut}>{statut} : {nombre}</div>
+          ))}
+        </div>
+      </Tooltip>
+    </Marker>
+  ));
+};
+
 // Composant pour gérer les clics sur la carte
 const MapClickHandler = ({ onMapClick }) => {
   useMapEvents({
@@ -55,21 +106,36 @@ const Map = ({
   onMapClick 
 }) => {
   const [signalements, setSignalements] = useState([]);
+  const [clusters, setClusters] = useState([]);
   const [selectedSignalement, setSelectedSignalement] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
 
-  // Charger les signalements au montage du composant
-  useEffect(() => {
-    loadSignalements();
-  }, []);
+  const [bounds, setBounds] = useState(null);
+  const [mapZoom, setMapZoom] = useState(zoom);
 
-  const loadSignalements = async () => {
+  // Charger uniquement les signalements de la zone affichée (regroupés en zoom arrière)
+  const loadSignalements = async (zone = bounds, niveau = mapZoom) => {
+    if (!zone) return;
+    const zoneRequete = {
+      minLat: zone.getSouth(),
+      minLng: zone.getWest(),
+      maxLat: zone.getNorth(),
+      maxLng: zone.getEast(),
+    };
     try {
       setLoading(true);
       setError(null);
-      const data = await apiService.getAllSignalements();
-      setSignalements(data.signalements || data || []);
+      if (niveau < ZOOM_POINTS) {
+        // Tuiles d'agrégation deux niveaux plus fines que la carte (environ 64 px à l'écran)
+        const data = await apiService.getClusters(Math.round(niveau) + 2, zoneRequete);
+        setClusters(data || []);
+        setSignalements([]);
+      } else {
+        const data = await apiService.getSignalementsByZone(zoneRequete);
+        setSignalements(data || []);
+        setClusters([]);
+      }
     } catch (err) {
       console.error('Erreur chargement signalements:', err);
       setError(err.message);
@@ -122,6 +188,18 @@ const Map = ({
           maxZoom={19}
         />
 
+        {/* Rechargement des signalements visibles au déplacement */}
+        <MapBoundsHandler
+          onBoundsChange={(zone, niveau) => {
+            setBounds(zone);
+            setMapZoom(niveau);
+            loadSignalements(zone, niveau);
+          }}
+        />
+
+        {/* Regroupements en zoom arrière */}
+        <ClusterMarkers clusters={clusters} />
+
         {/* Gestionnaire de clics sur la carte */}
         <MapClickHandler onMapClick={onMapClick} />
 
@@ -7,93 +7,34 @@ import apiService from '../services/ApiService';
  */
 const Recapitulation = () => {
   const navigate = useNavigate();
-  const [signalements, setSignalements] = useState([]);
+  const [statistiques, setStatistiques] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
 
   useEffect(() => {
-    loadSignalements();
+    loadStatistiques();
   }, []);
 
-  const loadSignalements = async () => {
+  const loadStatistiques = async () => {
     try {
       setLoading(true);
       setError(null);
-      const data = await apiService.getAllSignalements();
-      setSignalements(data.signalements || data || []);
+      const data = await apiService.getStatistiques();
+      setStatistiques(data);
     } catch (err) {
-      console.error('Erreur chargement signalements:', err);
+      console.error('Erreur chargement statistiques:', err);
       setError(err.message);
     } finally {
       setLoading(false);
     }
   };
 
-  // Calcul des statistiques globales
-  const getStatistiquesGlobales = () => {
-    const nbTotal = signalements.length;
-    
-    const totalSurface = signalements.reduce((acc, sig) => {
-      return acc + (parseFloat(sig.surfaceM2) || 0);
-    }, 0);
-
-    const totalBudget = signalements.reduce((acc, sig) => {
-      return acc + (parseFloat(sig.budget) || 0);
-    }, 0);
-
-    // Calcul de l'avancement en %
-    // OUVERT = 0%, EN_COURS = 50%, RESOLU/FERME = 100%
-    const avancement = signalements.reduce((acc, sig) => {
-      if (sig.statut === 'OUVERT') return acc + 0;
-      if (sig.statut === 'EN_COURS') return acc + 50;
-      if (sig.statut === 'RESOLU' || sig.statut === 'FERME') return acc + 100;
-      return acc;
-    }, 0);
-
-    const avancementPourcentage = nbTotal > 0 ? (avancement / nbTotal).toFixed(2) : 0;
-
-    return {
-      nbTotal,
-      totalSurface: totalSurface.toFixed(2),
-      totalBudget: totalBudget.toFixed(2),
-      avancementPourcentage
-    };
-  };
-
-  // Statistiques par statut
-  const getStatistiquesParStatut = () => {
-    const statuts = ['OUVERT', 'EN_COURS', 'RESOLU', 'FERME'];
-    
-    return statuts.map(statut => {
-      const signalementsStatut = signalements.filter(s => s.statut === statut);
-      const nb = signalementsStatut.length;
-      
-      const surface = signalementsStatut.reduce((acc, sig) => {
-        return acc + (parseFloat(sig.surfaceM2) || 0);
-      }, 0);
-
-      const budget = signalementsStatut.reduce((acc, sig) => {
-        return acc + (parseFloat(sig.budget) || 0);
-      }, 0);
-
-      const pourcentage = signalements.length > 0 
-        ? ((nb / signalements.length) * 100).toFixed(1) 
-        : 0;
-
-      return {
-        statut,
-        nb,
-        surface: surface.toFixed(2),
-        budget: budget.toFixed(2),
-        pourcentage
-      };
-    });
-  };
-
   const getStatutLabel = (statut) => {
     switch (statut) {
+      case 'NOUVEAU':
       case 'OUVERT': return 'Nouveau';
       case 'EN_COURS': return 'En cours';
+      case 'TERMINE':
       case 'RESOLU': return 'Terminé';
       case 'FERME': return 'Fermé';
       default: return statut;
@@ -102,16 +43,18 @@ const Recapitulation = () => {
 
   const getStatutColor = (statut) => {
     switch (statut) {
+      case 'NOUVEAU':
       case 'OUVERT': return '#ff9800';
       case 'EN_COURS': return '#2196f3';
+      case 'TERMINE':
       case 'RESOLU': return '#4caf50';
       case 'FERME': return '#9e9e9e';
       default: return '#757575';
     }
   };
 
-  const stats = getStatistiquesGlobales();
-  const statsParStatut = getStatistiquesParStatut();
+  const stats = statistiques || { nbTotal: 0, totalSurface: 0, totalBudget: 0, avancementPourcentage: 0 };
+  const statsParStatut = statistiques?.parStatut || [];
 
   if (loading) {
     return (
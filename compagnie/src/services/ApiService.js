@@ -125,8 +125,34 @@ class ApiService {
   }
 
   // ==================== SIGNALEMENTS ====================
-  async getAllSignalements() {
-    const response = await fetch(`${this.baseUrl}/api/signalements`, {
+  /**
+   * Récupère tous les signalements en parcourant les pages (curseur, sans OFFSET)
+   * @param {Object} filtres - { statut, source, idUtilisateur } (optionnels)
+   */
+  async getAllSignalements(filtres = {}) {
+    const signalements = [];
+    let curseur = null;
+    do {
+      const page = await this.getSignalementsPage({ ...filtres, curseur });
+      signalements.push(...page.elements);
+      curseur = page.suite ? page.curseurSuivant : null;
+    } while (curseur);
+    return signalements;
+  }
+
+  /**
+   * Récupère une page de signalements
+   * @param {Object} params - { curseur, taille, statut, source, idUtilisateur } (optionnels)
+   * @returns {Promise<{elements: Array, curseurSuivant: string|null, suite: boolean}>}
+   */
+  async getSignalementsPage(params = {}) {
+    const query = new URLSearchParams();
+    Object.entries(params).forEach(([cle, valeur]) => {
+      if (valeur !== undefined && valeur !== null && valeur !== '') {
+        query.append(cle, valeur);
+      }
+    });
+    const response = await fetch(`${this.baseUrl}/api/signalements/page?${query}`, {
       headers: this.getHeaders(false),
     });
     return this.handleResponse(response);
@@ -163,18 +189,54 @@ class ApiService {
   }
 
     /**
-   * Récupère les signalements par zone géographique
+   * Récupère les signalements par zone géographique (index spatial côté serveur)
    * @param {Object} bounds - { minLat, maxLat, minLng, maxLng }
    */
   async getSignalementsByZone(bounds) {
-    const params = new URLSearchParams(bounds);
-    const response = await fetch(`${this.baseUrl}/api/signalements/zone?${params}`, {
+    const params = new URLSearchParams({
+      minLat: bounds.minLat,
+      minLng: bounds.minLng,
+      maxLat: bounds.maxLat,
+      maxLng: bounds.maxLng,
+    });
+    const response = await fetch(`${this.baseUrl}/api/signalements/bbox?${params}`, {
       headers: this.getHeaders(),
     });
     return this.handleResponse(response);
   }
 
 
+  /**
+   * Récupère les signalements regroupés par tuile (agrégation côté serveur)
+   * @param {number} zoom - niveau de zoom des tuiles d'agrégation
+   * @param {Object} bounds - { minLat, maxLat, minLng, maxLng }
+   * @returns {Promise<Array<{zoom, x, y, nombre, latitude, longitude, statuts}>>}
+   */
+  async getClusters(zoom, bounds) {
+    const params = new URLSearchParams({
+      zoom,
+      minLat: bounds.minLat,
+      minLng: bounds.minLng,
+      maxLat: bounds.maxLat,
+      maxLng: bounds.maxLng,
+    });
+    const response = await fetch(`${this.baseUrl}/api/signalements/clusters?${params}`, {
+      headers: this.getHeaders(),
+    });
+    return this.handleResponse(response);
+  }
+
+  /**
+   * Récupère les statistiques du tableau de bord (calculées côté serveur)
+   * @returns {Promise<{nbTotal, totalSurface, totalBudget, avancementPourcentage, parStatut}>}
+   */
+  async getStatistiques() {
+    const response = await fetch(`${this.baseUrl}/api/signalements/stats`, {
+      headers: this.getHeaders(),
+    });
+    return this.handleResponse(response);
+  }
+
     async updateSignalement(data) {
     const response = await fetch(`${this.baseUrl}/api/signalements`, {
       method: 'PUT',
@@ -5,6 +5,7 @@ import {
   addDoc,
   getDoc,
   getDocs,
+  setDoc,
   updateDoc,
   deleteDoc,
   query,
@@ -164,6 +165,15 @@ export const useSignalements = () => {
     }
   };
 
+  /**
+   * Compléter le document Firestore d'un signalement créé par le backend avec les champs
+   * propres au mobile (auteur Firebase, photos). Fusion : le document peut ne pas encore
+   * avoir été synchronisé par le backend
+   */
+  const completer = async (id: string, data: Partial<Signalement>) => {
+    await setDoc(doc(db, 'signalements', id), { id_signalement: id, ...data }, { merge: true });
+  };
+
   /**
    * Mettre à jour un signalement
    */
@@ -237,6 +247,7 @@ export const useSignalements = () => {
     getByUser,
     getById,
     create,
+    completer,
     update,
     remove,
     updateStatus
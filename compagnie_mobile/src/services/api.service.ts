@@ -1,9 +1,10 @@
-import axios, { AxiosInstance } from 'axios';
+import axios, { AxiosInstance, AxiosError, InternalAxiosRequestConfig } from 'axios';
 import type { RegisterRequest, LoginRequest, AuthResponse } from '../types/models';
 
 class ApiService {
   private api: AxiosInstance;
   private baseURL: string;
+  private rafraichissement: Promise<string | null> | null = null;
 
   constructor() {
     this.baseURL = import.meta.env.VITE_API_URL || 'http://localhost:8080/api';
@@ -25,13 +26,65 @@ class ApiService {
       },
       (error) => Promise.reject(error)
     );
+
+    // Jeton d'accès expiré (401) : un seul rafraîchissement partagé, puis la requête est rejouée une fois
+    this.api.interceptors.response.use(
+      (response) => response,
+      async (error: AxiosError) => {
+        const config = error.config as (InternalAxiosRequestConfig & { _rejoue?: boolean }) | undefined;
+        if (error.response?.status !== 401 || !config || config._rejoue || config.url?.startsWith('/auth/')) {
+          return Promise.reject(error);
+        }
+        const token = await this.rafraichir();
+        if (!token) {
+          return Promise.reject(error);
+        }
+        config._rejoue = true;
+        config.headers.Authorization = `Bearer ${token}`;
+        return this.api.request(config);
+      }
+    );
   }
 
-    async register(data: RegisterRequest): Promise<AuthResponse> {
-    const response = await this.api.post<AuthResponse>('/auth/inscription', data);
-    if (response.data.token) {
-      localStorage.setItem('authToken', response.data.token);
+  private rafraichir(): Promise<string | null> {
+    if (!this.rafraichissement) {
+      const refreshToken = localStorage.getItem('refreshToken');
+      this.rafraichissement = (refreshToken
+        ? this.api.post<AuthResponse>('/auth/refresh', { refreshToken })
+            .then((response) => this.stockerJetons(response.data))
+            .catch(() => null)
+        : Promise.resolve(null)
+      ).then((token) => {
+        if (!token) {
+          this.effacerJetons();
+        }
+        return token;
+      }).finally(() => {
+        this.rafraichissement = null;
+      });
+    }
+    return this.rafraichissement;
+  }
+
+  private stockerJetons(data: AuthResponse): string | null {
+    if (!data.token) {
+      return null;
     }
+    localStorage.setItem('authToken', data.token);
+    if (data.refreshToken) {
+      localStorage.setItem('refreshToken', data.refreshToken);
+    }
+    return data.token;
+  }
+
+  private effacerJetons(): void {
+    localStorage.removeItem('authToken');
+    localStorage.removeItem('refreshToken');
+  }
+
+    async register(data: RegisterRequest): Promise<AuthResponse> {
+    const response = await this.api.post<AuthResponse>('/auth/register', data);
+    this.stockerJetons(response.data);
     return response.data;
   }
 
@@ -48,10 +101,8 @@ class ApiService {
 
 
   async login(data: LoginRequest): Promise<AuthResponse> {
-    const response = await this.api.post<AuthResponse>('/auth/connexion', data);
-    if (response.data.token) {
-      localStorage.setItem('authToken', response.data.token);
-    }
+    const response = await this.api.post<AuthResponse>('/auth/login', data);
+    this.stockerJetons(response.data);
     return response.data;
   }
 
@@ -60,8 +111,14 @@ class ApiService {
     const response = await this.api.get('/signalement');
     return response.data;
   }
-    async createSignalement(data: any): Promise<any> {
-    const response = await this.api.post('/signalement', data);
+  /**
+   * Crée un signalement. La clé est créée une fois par soumission du formulaire et réutilisée
+   * pour chaque renvoi (timeout, réseau coupé) : le serveur rejoue la réponse au lieu de créer un doublon
+   */
+  async createSignalement(data: any, idempotencyKey: string): Promise<any> {
+    const response = await this.api.post('/signalements', data, {
+      headers: { 'Idempotency-Key': idempotencyKey },
+    });
     return response.data;
   }
 
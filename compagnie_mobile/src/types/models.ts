@@ -111,4 +111,6 @@ export interface AuthResponse {
   role?: Role;
   etat?: EtatCompte;
   token?: string;
+  refreshToken?: string;
+  expiresIn?: number;
 }